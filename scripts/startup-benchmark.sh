@@ -0,0 +1,119 @@
+#!/usr/bin/env bash
+#
+# Benchmark de subida das três imagens: JVM (Dockerfile), AOT + CDS (Dockerfile.aot) e nativa (Dockerfile.native).
+#
+# Para cada variante, RUNS subidas contra um Postgres num container ao lado, medindo:
+#   - ready: do "docker run" até o /actuator/health responder UP (inclui criar o container)
+#   - spring: o "Started AuthApplication in X seconds" do log
+#   - rss: VmRSS do processo logo depois de ficar pronto
+# Sai uma tabela markdown com as medianas e o tamanho de cada imagem.
+#
+#   scripts/startup-benchmark.sh                          → build das três imagens + 5 subidas de cada
+#   RUNS=10 SKIP_BUILD=1 scripts/startup-benchmark.sh     → reaproveita auth:jvm, auth:aot e auth:native
+#   VARIANTS="jvm aot" scripts/startup-benchmark.sh       → só algumas variantes
+#
+# Precisa de docker e curl.
+
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+VARIANTS=${VARIANTS:-"jvm aot native"}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+NETWORK=auth-startup-bench
+DB=auth-startup-bench-db
+APP=auth-startup-bench-app
+
+cd "$(dirname "$0")/.."
+
+dockerfile() {
+  case "$1" in
+    jvm) echo Dockerfile ;;
+    aot) echo Dockerfile.aot ;;
+    native) echo Dockerfile.native ;;
+    *) echo "Unknown variant: $1" >&2; exit 1 ;;
+  esac
+}
+
+cleanup() {
+  docker rm -f "$APP" "$DB" >/dev/null 2>&1 || true
+  docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+now_ms() {
+  date +%s%3N
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "-"; else if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# Sobe a imagem, espera o health e imprime "ready_ms spring_s rss_kb"
+start_once() {
+  local image=$1 started port
+
+  started=$(now_ms)
+  docker run -d --name "$APP" --network "$NETWORK" -p 127.0.0.1::8080 \
+    -e SPRING_DATASOURCE_URL="jdbc:postgresql://$DB:5432/auth" \
+    -e SPRING_DATASOURCE_USERNAME=postgres \
+    -e SPRING_DATASOURCE_PASSWORD=postgres \
+    -e JWT_SECRET=startup-benchmark-secret-0123456789abcdef \
+    -e JWT_EXPIRATION_MS=3600000 \
+    "$image" >/dev/null
+  port=$(docker port "$APP" 8080/tcp | head -1 | cut -d: -f2)
+
+  until curl -fs "http://127.0.0.1:$port/actuator/health" 2>/dev/null | grep -q '"UP"'; do
+    if (( $(now_ms) - started > TIMEOUT_SECONDS * 1000 )); then
+      echo "$image did not become healthy in ${TIMEOUT_SECONDS}s:" >&2
+      docker logs --tail 50 "$APP" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  local ready=$(( $(now_ms) - started ))
+
+  local spring rss
+  spring=$(docker logs "$APP" 2>&1 | grep -o 'Started AuthApplication in [0-9.]*' | awk '{ print $4 }')
+  rss=$(docker exec "$APP" sh -c "awk '/VmRSS/ { print \$2 }' /proc/1/status")
+
+  docker rm -f "$APP" >/dev/null
+  echo "$ready ${spring:--} $rss"
+}
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+  for variant in $VARIANTS; do
+    echo "Building auth:$variant ($(dockerfile "$variant"))..." >&2
+    docker build -q -f "$(dockerfile "$variant")" -t "auth:$variant" . >/dev/null
+  done
+fi
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$DB" --network "$NETWORK" -e POSTGRES_DB=auth -e POSTGRES_PASSWORD=postgres postgres:16-alpine >/dev/null
+# Por TCP — durante o initdb o Postgres só escuta no socket local
+until docker exec "$DB" pg_isready -h 127.0.0.1 -U postgres -d auth >/dev/null 2>&1; do
+  sleep 0.2
+done
+
+# Subida descartável: aplica as migrations, para todas as subidas medidas só validarem o schema
+first=${VARIANTS%% *}
+echo "Applying migrations with auth:$first..." >&2
+start_once "auth:$first" >/dev/null
+
+echo
+echo "| variant | image | ready (ms) | spring (s) | RSS (MB) |"
+echo "|---------|-------|-----------:|-----------:|---------:|"
+for variant in $VARIANTS; do
+  results=()
+  for ((run = 1; run <= RUNS; run++)); do
+    echo "auth:$variant run $run/$RUNS" >&2
+    results+=("$(start_once "auth:$variant")")
+  done
+
+  size=$(docker image inspect -f '{{ .Size }}' "auth:$variant" | awk '{ printf "%.0f MB", $1 / 1024 / 1024 }')
+  ready=$(printf '%s\n' "${results[@]}" | awk '{ print $1 }' | median)
+  spring=$(printf '%s\n' "${results[@]}" | awk '$2 != "-" { print $2 }' | median)
+  rss=$(printf '%s\n' "${results[@]}" | awk '{ print $3 }' | median | awk '{ printf "%.0f", $1 / 1024 }')
+
+  echo "| $variant | $size | $ready | $spring | $rss |"
+done
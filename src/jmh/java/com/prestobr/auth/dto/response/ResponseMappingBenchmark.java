@@ -0,0 +1,69 @@
+package com.prestobr.auth.dto.response;
+
+import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.domain.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de entidade para DTO nas listagens (por item — uma página de 500 custa 500 vezes isso).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private User user;
+    private ApiKey apiKey;
+
+    @Setup
+    public void setUp() {
+        Set<Role> roles = Set.of(
+                Role.builder().id(1L).name("ADMIN").build(),
+                Role.builder().id(3L).name("FISCAL_READ").build(),
+                Role.builder().id(4L).name("FISCAL_WRITE").build());
+
+        user = User.builder()
+                .id(42L)
+                .username("benchmark.user")
+                .email("benchmark.user@prestobr.com")
+                .password("$2a$10$hash")
+                .roles(roles)
+                .build();
+        apiKey = ApiKey.builder()
+                .id(7L)
+                .keyHash("hash")
+                .keyPrefix("0123456789abcdef")
+                .description("ERP integration")
+                .user(user)
+                .roles(roles)
+                .expiresAt(LocalDateTime.now().plusDays(30))
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse userResponse() {
+        return UserResponse.from(user);
+    }
+
+    @Benchmark
+    public ApiKeyResponse apiKeyResponse() {
+        return ApiKeyResponse.fromWithoutKey(apiKey);
+    }
+}
@@ -0,0 +1,98 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.repository.RevokedSubjectRepository;
+import com.prestobr.auth.repository.RevokedTokenRepository;
+import com.prestobr.auth.repository.RoleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Componentes reais da autenticação montados sem Spring e sem banco — os repositórios são mocks
+ * que só respondem à carga inicial. Mesma configuração do application.properties onde importa.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    static final long EXPIRATION_MS = 900_000; // jwt.access-expiration-ms
+    static final List<String> ROLES = List.of("ADMIN", "FISCAL_READ", "FISCAL_WRITE");
+
+    private BenchmarkFixtures() {
+    }
+
+    static RoleCatalog roleCatalog() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(
+                Role.builder().id(1L).name("ADMIN").build(),
+                Role.builder().id(2L).name("USER").build(),
+                Role.builder().id(3L).name("FISCAL_READ").build(),
+                Role.builder().id(4L).name("FISCAL_WRITE").build()));
+        RoleCatalog roleCatalog = new RoleCatalog(roleRepository);
+        roleCatalog.reload();
+        return roleCatalog;
+    }
+
+    static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * @param algorithm "HS256" (jwt.secret) ou "ES256" (par P-256 gerado num diretório temporário, kid "bench")
+     */
+    static JwtService jwtService(String algorithm, RoleCatalog roleCatalog) throws IOException, GeneralSecurityException {
+        SigningKeys signingKeys = "ES256".equals(algorithm)
+                ? new SigningKeys(ecKeyDir("bench").toString(), "bench")
+                : new SigningKeys("", "");
+
+        JwtService jwtService = new JwtService(signingKeys, roleCatalog, authMetrics());
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessExpirationMs", EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtService, "acceptHmac", true);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    static TokenRevocationList tokenRevocationList() {
+        RevokedTokenRepository revokedTokens = mock(RevokedTokenRepository.class);
+        RevokedSubjectRepository revokedSubjects = mock(RevokedSubjectRepository.class);
+        when(revokedTokens.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(revokedSubjects.findByExpiresAtAfter(any())).thenReturn(List.of());
+        TokenRevocationList revocationList = new TokenRevocationList(revokedTokens, revokedSubjects, 1_000_000, EXPIRATION_MS);
+        revocationList.reload();
+        return revocationList;
+    }
+
+    // Diretório no formato de jwt.signing.key-dir: <kid>.key (PKCS#8) e <kid>.pub (X.509) em PEM
+    static Path ecKeyDir(String kid) throws IOException, GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+
+        Path dir = Files.createTempDirectory("jwt-keys");
+        Files.writeString(dir.resolve(kid + ".key"), pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        Files.writeString(dir.resolve(kid + ".pub"), pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        dir.toFile().deleteOnExit();
+        dir.resolve(kid + ".key").toFile().deleteOnExit();
+        dir.resolve(kid + ".pub").toFile().deleteOnExit();
+        return dir;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,59 @@
+package com.prestobr.auth.infra.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthFilter.doFilterInternal de ponta a ponta com requisições mock: header, cache de tokens,
+ * revogação e SecurityContext, com o token já no VerifiedTokenCache — o caso de quase toda requisição.
+ * O custo de uma falta no cache é o JwtServiceBenchmark.verify.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() throws Exception {
+        RoleCatalog roleCatalog = BenchmarkFixtures.roleCatalog();
+        JwtService jwtService = BenchmarkFixtures.jwtService("HS256", roleCatalog);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtService, roleCatalog, new SimpleMeterRegistry(), 10_000);
+        filter = new JwtAuthFilter(verifiedTokenCache, BenchmarkFixtures.tokenRevocationList());
+
+        request = new MockHttpServletRequest("GET", "/v1/auth/me");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken("benchmark.user", BenchmarkFixtures.ROLES));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public void doFilterInternal(Blackhole blackhole) throws Exception {
+        filter.doFilterInternal(request, response, chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,62 @@
+package com.prestobr.auth.infra.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão e verificação de JWT (JwtService), com HMAC e com ES256.
+ *
+ *   - generateToken: claims + JSON + assinatura — custo do login e do refresh
+ *   - verify: parse, assinatura e extração das claims — custo de uma falta no VerifiedTokenCache
+ *   - extractClaims: verify + leitura das claims usadas pelo filtro (subject, roles, rb, jti)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtService = BenchmarkFixtures.jwtService(algorithm, BenchmarkFixtures.roleCatalog());
+        token = jwtService.generateToken("benchmark.user", BenchmarkFixtures.ROLES);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("benchmark.user", BenchmarkFixtures.ROLES);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public long extractClaims() {
+        VerifiedToken verified = jwtService.verify(token).orElseThrow();
+        List<String> roles = verified.roles();
+        return verified.subject().length() + roles.size() + verified.roleMask() + verified.jti().length();
+    }
+}
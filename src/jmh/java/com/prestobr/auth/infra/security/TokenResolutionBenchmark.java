@@ -0,0 +1,86 @@
+package com.prestobr.auth.infra.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Do token ao principal autorizado, sem o filtro em volta:
+ *
+ *   - cacheHit: VerifiedTokenCache.resolve de um token já verificado (SHA-256 + lookup)
+ *   - buildAuthorities / buildAuthentication: montagem das authorities por token — strings novas
+ *     a cada vez (como antes do RoleCatalog) contra as instâncias compartilhadas do catálogo
+ *   - hasRoleByAuthorities / hasRoleByBit: hasRole('ADMIN') do Spring contra o RoleBitAuthorizationManager
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenResolutionBenchmark {
+
+    private RoleCatalog roleCatalog;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+    private Authentication authentication;
+    private AuthorizationManager<Object> springHasRole;
+    private AuthorizationManager<Object> bitHasRole;
+
+    @Setup
+    public void setUp() throws Exception {
+        roleCatalog = BenchmarkFixtures.roleCatalog();
+        JwtService jwtService = BenchmarkFixtures.jwtService("HS256", roleCatalog);
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, roleCatalog, new SimpleMeterRegistry(), 10_000);
+        token = jwtService.generateToken("benchmark.user", BenchmarkFixtures.ROLES);
+        verifiedTokenCache.resolve(token);
+
+        authentication = roleCatalog.authentication("benchmark.user", BenchmarkFixtures.ROLES);
+        springHasRole = AuthorityAuthorizationManager.hasRole("ADMIN");
+        bitHasRole = RoleBitAuthorizationManager.hasAnyRole(() -> roleCatalog, "ADMIN");
+    }
+
+    @Benchmark
+    public Optional<VerifiedTokenCache.CachedPrincipal> cacheHit() {
+        return verifiedTokenCache.resolve(token);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> buildAuthorities() {
+        return BenchmarkFixtures.ROLES.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+
+    @Benchmark
+    public RoleMaskAuthentication buildAuthentication() {
+        return roleCatalog.authentication("benchmark.user", BenchmarkFixtures.ROLES);
+    }
+
+    @Benchmark
+    public boolean hasRoleByAuthorities() {
+        return springHasRole.authorize(() -> authentication, null).isGranted();
+    }
+
+    @Benchmark
+    public boolean hasRoleByBit() {
+        return bitHasRole.authorize(() -> authentication, null).isGranted();
+    }
+}
@@ -2,12 +2,14 @@ package com.prestobr.auth;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principal do serviço de autenticação.
  * Ponto de entrada da aplicação — inicia o servidor e sobe todo o contexto Spring.
  */
 @SpringBootApplication
+@EnableScheduling
 public class AuthApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,83 @@
+package com.prestobr.auth.config;
+
+import com.prestobr.auth.infra.datasource.ReplicaLagMonitor;
+import com.prestobr.auth.infra.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica de leitura — só ativa com spring.datasource.replica.url configurada.
+ *
+ *   - primário: spring.datasource.* e spring.datasource.hikari.*, como antes (Flyway roda nele)
+ *   - réplica: spring.datasource.replica.url/username/password e spring.datasource.replica.hikari.*
+ *     (usuário e senha do primário quando omitidos)
+ *
+ * Transações read-only vão para a réplica enquanto o atraso estiver dentro da política
+ * (ReplicaLagMonitor); o resto fica no primário. Para testar local, dois Postgres comuns servem:
+ * um como primário e outro, com o mesmo schema, como réplica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties primary,
+            @Value("${spring.datasource.replica.url}") String url,
+            @Value("${spring.datasource.replica.username:}") String username,
+            @Value("${spring.datasource.replica.password:}") String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(StringUtils.hasText(username) ? username : primary.determineUsername())
+                .password(StringUtils.hasText(password) ? password : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${spring.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+            MeterRegistry meterRegistry
+    ) {
+        return new ReplicaLagMonitor(replica, maxLagMs, meterRegistry);
+    }
+
+    // DataSource usado por JPA e JdbcTemplate
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor
+    ) {
+        return ReplicaRoutingDataSource.readWriteSplitting(primary, replica, lagMonitor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.prestobr.auth.config;
+
+import com.prestobr.auth.dto.response.ApiKeyResponse;
+import com.prestobr.auth.dto.response.RoleResponse;
+import com.prestobr.auth.dto.response.UserResponse;
+import com.prestobr.auth.infra.cache.AuthChangeEvent;
+import com.prestobr.auth.repository.projection.ApiKeyRoleRow;
+import com.prestobr.auth.repository.projection.UserRoleRow;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Hints de reflexão para a imagem nativa (profile "native") — o que o AOT do Spring não enxerga sozinho.
+ *
+ *   - JJWT: a API instancia a implementação por nome (Jwts.builder(), Jwts.parser(), Jwts.SIG...)
+ *   - Construtores das projeções usadas em "SELECT new ..." nas queries (Hibernate instancia por reflexão)
+ *   - JSON fora das assinaturas dos controllers: exports NDJSON e payload do NOTIFY (AuthChangeEvent)
+ *
+ * Na JVM não tem efeito.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHints.Registrar.class)
+@RegisterReflectionForBinding({UserResponse.class, ApiKeyResponse.class, RoleResponse.class, AuthChangeEvent.class})
+public class NativeHints {
+
+    // Carregadas por nome pelo jjwt-api (io.jsonwebtoken.lang.Classes)
+    static final List<String> JJWT_IMPLEMENTATIONS = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms"
+    );
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_IMPLEMENTATIONS) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            for (Class<?> projection : List.of(UserRoleRow.class, ApiKeyRoleRow.class, RoleResponse.class)) {
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+        }
+    }
+}
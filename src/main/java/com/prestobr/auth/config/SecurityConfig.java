@@ -1,28 +1,51 @@
 package com.prestobr.auth.config;
 
+import com.prestobr.auth.infra.datasource.ReplicaRoutingFilter;
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.infra.ratelimit.ApiKeyRateLimitFilter;
+import com.prestobr.auth.infra.ratelimit.RateLimitFilter;
+import com.prestobr.auth.infra.security.AdaptivePasswordEncoders;
+import com.prestobr.auth.infra.security.ApiKeyAuthFilter;
+import com.prestobr.auth.infra.security.BoundedPasswordEncoder;
 import com.prestobr.auth.infra.security.JwtAuthFilter;
+import com.prestobr.auth.infra.security.PreAuthorizeRoleBitManager;
+import com.prestobr.auth.infra.security.RoleBitAuthorizationManager;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
+@EnableMethodSecurity(prePostEnabled = false) // @PreAuthorize registrado abaixo, com teste de bits
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private final RateLimitFilter rateLimitFilter;
+    private final ApiKeyRateLimitFilter apiKeyRateLimitFilter;
     private final JwtAuthFilter jwtAuthFilter;
+    private final ApiKeyAuthFilter apiKeyAuthFilter;
+    private final ReplicaRoutingFilter replicaRoutingFilter;
+    private final RoleCatalog roleCatalog;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -30,25 +53,57 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch assíncrono que finaliza os exports em stream — a requisição original já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints públicos — não precisam de token
-                        .requestMatchers("/v1/auth/login").permitAll()
+                        .requestMatchers("/v1/auth/login", "/v1/auth/refresh").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").access(RoleBitAuthorizationManager.hasAnyRole(() -> roleCatalog, "ADMIN"))
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
 
-                        // Gerenciamento de usuários — apenas ADMIN
-                        .requestMatchers("/v1/users/**").hasRole("ADMIN")
+                        // Gerenciamento de usuários — apenas ADMIN (teste de bit no bitmask do principal)
+                        .requestMatchers("/v1/users/**").access(RoleBitAuthorizationManager.hasAnyRole(() -> roleCatalog, "ADMIN"))
 
                         // Qualquer outra rota exige autenticação
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                // JWT (usuários) e API Key (machine-to-machine) — o primeiro que autenticar vence
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(apiKeyAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Rate limit antes de qualquer autenticação — login recusado aqui não chega ao BCrypt
+                .addFilterBefore(rateLimitFilter, JwtAuthFilter.class)
+                // API Keys só depois da verificação — o bucket é o da chave conferida, ou o do IP se inválida
+                .addFilterAfter(apiKeyRateLimitFilter, ApiKeyAuthFilter.class)
+                // Escolha primário/réplica depois da autenticação — precisa saber quem escreveu por último
+                .addFilterAfter(replicaRoutingFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    // @PreAuthorize("hasRole(...)") avaliado por bits; outras expressões seguem no SpEL
+    // static + ObjectProvider: o advisor é infraestrutura e não pode antecipar a criação dos beans da aplicação
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAdvisor(ObjectProvider<RoleCatalog> roleCatalog) {
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(new PreAuthorizeRoleBitManager(roleCatalog::getObject));
+    }
+
+    // Hash de senha com custo calibrado pela latência alvo, executado num pool de CPU limitado
+    // — picos de login não ocupam as threads das requisições
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${security.password.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password.bcrypt-strength:0}") int bcryptStrength, // 0 = calibrar
+            @Value("${security.password.target-ms:250}") long targetMs,
+            @Value("${security.password.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${security.password.queue-capacity:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 2}}") int queueCapacity,
+            @Value("${security.password.retry-after-seconds:1}") long retryAfterSeconds,
+            AuthMetrics authMetrics
+    ) {
+        PasswordEncoder encoder = AdaptivePasswordEncoders.create(algorithm, bcryptStrength, Duration.ofMillis(targetMs));
+        return new BoundedPasswordEncoder(encoder, poolSize, queueCapacity, retryAfterSeconds, authMetrics);
     }
 
     @Bean
@@ -0,0 +1,31 @@
+package com.prestobr.auth.controller;
+
+import com.prestobr.auth.infra.security.SigningKeys;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+// Publica as chaves públicas de assinatura (JWK Set) para os outros serviços validarem tokens localmente.
+@RestController
+@Tag(name = "JWKS")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeys signingKeys;
+
+    // Conteúdo só muda com deploy/rotação — consumidores podem cachear
+    @Operation(summary = "Chaves públicas para validação dos tokens (JWK Set)")
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(signingKeys.jwksJson());
+    }
+}
@@ -1,18 +1,28 @@
 package com.prestobr.auth.controller.v1;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.prestobr.auth.dto.request.ApiKeyRequest;
 import com.prestobr.auth.dto.request.ApiKeyUpdateRequest;
+import com.prestobr.auth.dto.request.BulkApiKeyRequest;
 import com.prestobr.auth.dto.response.ApiKeyResponse;
+import com.prestobr.auth.dto.response.BulkResponse;
+import com.prestobr.auth.dto.response.CursorPage;
+import com.prestobr.auth.infra.web.NdjsonWriter;
 import com.prestobr.auth.service.ApiKeyService;
+import com.prestobr.auth.service.BulkProvisioningService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // Controller REST responsável pelos endpoints de gerenciamento de API Keys.
@@ -22,7 +32,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ApiKeyController {
 
+    private static final int EXPORT_FLUSH_EVERY = 500;
+
     private final ApiKeyService apiKeyService;
+    private final BulkProvisioningService bulkProvisioningService;
+    private final ObjectMapper objectMapper;
 
     // Cria uma nova API Key para o usuário autenticado
     @Operation(summary = "Cria uma nova API Key para o usuário autenticado")
@@ -35,6 +49,14 @@ public class ApiKeyController {
         return apiKeyService.create(username, request);
     }
 
+    // Cria API Keys para vários usuários de uma vez (admin) — resultado por linha, com a chave raw
+    @Operation(summary = "Cria API Keys em massa (admin)")
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkResponse<ApiKeyResponse> createBulk(@RequestBody @Valid BulkApiKeyRequest request) {
+        return bulkProvisioningService.createApiKeys(request.getApiKeys());
+    }
+
     // Revoga (desativa) uma API Key pelo ID
     @Operation(summary = "Revoga uma API Key")
     @DeleteMapping("/{id}")
@@ -63,10 +85,33 @@ public class ApiKeyController {
         return apiKeyService.listByUser(username);
     }
 
-    @Operation(summary = "Lista todas as API Keys (admin)")
+    // Paginado por cursor — próxima página: afterId = nextAfterId
+    @Operation(summary = "Lista todas as API Keys (admin), paginado por cursor")
     @GetMapping("/admin")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<ApiKeyResponse> listAll() {
-        return apiKeyService.listAll();
+    public CursorPage<ApiKeyResponse> listAll(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiringBefore
+    ) {
+        return apiKeyService.listAll(afterId, limit, active, role, expiringBefore);
+    }
+
+    // Exporta todas as API Keys como NDJSON (um JSON por linha), em stream e com heap constante
+    @Operation(summary = "Exporta todas as API Keys em NDJSON (admin)")
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public StreamingResponseBody exportAll(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiringBefore
+    ) {
+        return out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out, EXPORT_FLUSH_EVERY)) {
+                apiKeyService.exportAll(active, role, expiringBefore, writer::write);
+            }
+        };
     }
 }
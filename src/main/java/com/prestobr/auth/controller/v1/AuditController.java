@@ -0,0 +1,41 @@
+package com.prestobr.auth.controller.v1;
+
+import com.prestobr.auth.domain.entity.AuditEvent;
+import com.prestobr.auth.dto.response.AuditEventResponse;
+import com.prestobr.auth.dto.response.CursorPage;
+import com.prestobr.auth.service.AuditService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+// Controller REST da trilha de auditoria (logins, API Keys e mudanças de roles) — apenas ADMIN.
+
+@RestController
+@RequestMapping("/v1/audit")
+@Tag(name = "Auditoria")
+@RequiredArgsConstructor
+public class AuditController {
+
+    private final AuditService auditService;
+
+    // Eventos paginados por cursor — próxima página: afterId = nextAfterId. from/to em ISO-8601 (UTC)
+    // O cursor pode pular eventos gravados tarde por outro nó — ver AuditService.list
+    @Operation(summary = "Lista os eventos de auditoria (admin), paginado por cursor")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<AuditEventResponse> list(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) AuditEvent.Type type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return auditService.list(afterId, limit, username, type, from, to);
+    }
+}
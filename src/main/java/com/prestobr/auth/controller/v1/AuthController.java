@@ -1,19 +1,31 @@
 package com.prestobr.auth.controller.v1;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.dto.request.BulkRegisterRequest;
 import com.prestobr.auth.dto.request.LoginRequest;
+import com.prestobr.auth.dto.request.RefreshRequest;
 import com.prestobr.auth.dto.request.RegisterRequest;
+import com.prestobr.auth.dto.response.BulkResponse;
+import com.prestobr.auth.dto.response.CursorPage;
 import com.prestobr.auth.dto.response.LoginResponse;
 import com.prestobr.auth.dto.response.RoleResponse;
 import com.prestobr.auth.dto.response.UserResponse;
+import com.prestobr.auth.infra.web.NdjsonWriter;
 import com.prestobr.auth.service.AuthService;
+import com.prestobr.auth.service.BulkProvisioningService;
+import com.prestobr.auth.service.RefreshTokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Set;
@@ -26,7 +38,13 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final int EXPORT_FLUSH_EVERY = 500;
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
+    private final RefreshTokenService refreshTokenService;
+    private final BulkProvisioningService bulkProvisioningService;
+    private final ObjectMapper objectMapper;
 
     // Registra um novo usuário no sistema.
     @Operation(summary = "Registra um novo usuário")
@@ -37,6 +55,14 @@ public class AuthController {
         authService.register(request);
     }
 
+    // Registra vários usuários de uma vez (onboarding de uma empresa) — resultado por linha
+    @Operation(summary = "Registra usuários em massa")
+    @PostMapping("/register/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkResponse<UserResponse> registerBulk(@RequestBody @Valid BulkRegisterRequest request) {
+        return bulkProvisioningService.registerAll(request.getUsers());
+    }
+
     // Autentica um usuário e retorna o token JWT
     @Operation(summary = "Realiza login e retorna o token JWT")
     @PostMapping("/login")
@@ -44,6 +70,26 @@ public class AuthController {
         return authService.login(request);
     }
 
+    // Troca um refresh token por um novo par de tokens — sem verificação de senha
+    @Operation(summary = "Renova o token JWT a partir do refresh token")
+    @PostMapping("/refresh")
+    public LoginResponse refresh(@RequestBody @Valid RefreshRequest request) {
+        return refreshTokenService.refresh(request.getRefreshToken());
+    }
+
+    // Revoga o token JWT usado nesta requisição e o refresh token da sessão (corpo opcional {"refreshToken"}) —
+    // sem "Bearer <token>" (ex.: autenticado por API Key), 400
+    @Operation(summary = "Realiza logout revogando o token JWT atual e o refresh token da sessão")
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                       @RequestBody(required = false) RefreshRequest request) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Logout requires a Bearer token.");
+        }
+        authService.logout(authorization.substring(BEARER_PREFIX.length()), request == null ? null : request.getRefreshToken());
+    }
+
     // Obtém lista de roles cadastrados
     @GetMapping("/roles/admin")
     @PreAuthorize("hasRole('ADMIN')")
@@ -58,11 +104,32 @@ public class AuthController {
         return authService.listRolesByUser(username);
     }
 
-    // Obtém lista de users cadastrados
+    // Obtém lista de users cadastrados, paginada por cursor — próxima página: afterId = nextAfterId
+    @Operation(summary = "Lista os usuários (admin), paginado por cursor")
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<UserResponse> getUsers() {
-        return authService.getUsers();
+    public CursorPage<UserResponse> getUsers(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String role
+    ) {
+        return authService.listUsers(afterId, limit, active, role);
+    }
+
+    // Exporta todos os users como NDJSON (um JSON por linha), em stream e com heap constante
+    @Operation(summary = "Exporta os usuários em NDJSON (admin)")
+    @GetMapping(value = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public StreamingResponseBody exportUsers(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String role
+    ) {
+        return out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out, EXPORT_FLUSH_EVERY)) {
+                authService.exportUsers(active, role, writer::write);
+            }
+        };
     }
 
     @PutMapping("/users/{id}/roles")
@@ -0,0 +1,58 @@
+package com.prestobr.auth.controller.v1;
+
+import com.prestobr.auth.dto.request.IntrospectionBatchRequest;
+import com.prestobr.auth.dto.response.IntrospectionResponse;
+import com.prestobr.auth.infra.ratelimit.RateLimiters;
+import com.prestobr.auth.service.IntrospectionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/*
+ * Introspecção de credenciais para serviços que não têm o jwt.secret (gateways, serviços internos).
+ * Quem chama precisa da role INTROSPECT (ou ADMIN) — um token de usuário comum não serve para
+ * sondar credenciais alheias — e cada credencial consome um token do limiter "introspect".
+ */
+@RestController
+@RequestMapping("/v1/auth/introspect")
+@Tag(name = "Introspecção")
+@RequiredArgsConstructor
+public class IntrospectionController {
+
+    private final IntrospectionService introspectionService;
+    private final RateLimiters rateLimiters;
+
+    // Formato da RFC 7662: form com token e token_type_hint (a dica é opcional e não é necessária)
+    @Operation(summary = "Valida um token JWT ou API Key (RFC 7662)")
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    @PreAuthorize("hasAnyRole('INTROSPECT', 'ADMIN')")
+    public IntrospectionResponse introspect(@AuthenticationPrincipal String caller,
+                                            @RequestParam("token") String token,
+                                            @RequestParam(name = "token_type_hint", required = false) String tokenTypeHint) {
+        limit(caller, 1);
+        return introspectionService.introspect(token);
+    }
+
+    // Até 1000 credenciais numa chamada — resposta na mesma ordem da requisição
+    @Operation(summary = "Valida vários tokens JWT e API Keys de uma vez")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('INTROSPECT', 'ADMIN')")
+    public List<IntrospectionResponse> introspectBatch(@AuthenticationPrincipal String caller,
+                                                       @RequestBody @Valid IntrospectionBatchRequest request) {
+        limit(caller, request.getTokens().size());
+        return introspectionService.introspectAll(request.getTokens());
+    }
+
+    private void limit(String caller, int credentials) {
+        if (rateLimiters.isEnabled()) {
+            rateLimiters.introspect().acquire(caller, credentials);
+        }
+    }
+}
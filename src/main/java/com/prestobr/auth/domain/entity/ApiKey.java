@@ -17,16 +17,27 @@ import java.util.Set;
 @Builder
 public class ApiKey {
 
+    // Sequence com blocos de 50 ids (V7) — sem IDENTITY o Hibernate consegue agrupar os INSERTs em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "api_keys_id_seq")
+    @SequenceGenerator(name = "api_keys_id_seq", sequenceName = "api_keys_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String keyHash;
 
+    // Parte pública da chave ("pb_<prefixo>_..."), usada para localizar a chave sem varrer a tabela
+    @Column(name = "key_prefix", unique = true)
+    private String keyPrefix;
+
     @Column(nullable = false)
     private String description;
 
+    // Chave assinada ("pbs_..."): dono, roles e expiração vão dentro da própria chave (ver SignedApiKeys)
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean signed = false;
+
     @Builder.Default
     @Column(nullable = false)
     private boolean active = true;
@@ -38,11 +49,12 @@ public class ApiKey {
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // LAZY: dono e roles são buscados junto só nas consultas que precisam (ver ApiKeyRepository)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "api_key_roles",
             joinColumns = @JoinColumn(name = "api_key_id"),
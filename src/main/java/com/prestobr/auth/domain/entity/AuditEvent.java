@@ -0,0 +1,56 @@
+package com.prestobr.auth.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Entidade que representa um evento da trilha de auditoria (tabela particionada por mês, ver V9).
+
+@Entity
+@Table(name = "audit_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditEvent {
+
+    // Sequence com blocos de 50 ids (V9) — os eventos de um lote vão num INSERT em batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_events_id_seq")
+    @SequenceGenerator(name = "audit_events_id_seq", sequenceName = "audit_events_id_seq", allocationSize = 50)
+    private Long id;
+
+    // Momento do evento (não da gravação, que é feita depois, em lote)
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private Type type;
+
+    // Usuário afetado — no login com falha, o username informado (pode não existir)
+    private String username;
+
+    // Quem executou a ação (null quando não há usuário autenticado, ex.: login)
+    private String actor;
+
+    // Id do usuário ou da API Key afetada
+    @Column(name = "target_id")
+    private Long targetId;
+
+    private String ip;
+
+    // Complemento por tipo: roles atribuídas, motivo da falha de login...
+    private String detail;
+
+    public enum Type {
+        LOGIN_SUCCESS,
+        LOGIN_FAILED,
+        API_KEY_CREATED,
+        API_KEY_REVOKED,
+        API_KEY_ROLES_CHANGED,
+        USER_ROLES_CHANGED
+    }
+}
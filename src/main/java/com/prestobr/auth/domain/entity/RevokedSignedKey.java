@@ -0,0 +1,30 @@
+package com.prestobr.auth.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Entidade que representa uma API Key assinada cuja linha em api_keys foi apagada — continua revogada (ver V12).
+
+@Entity
+@Table(name = "revoked_signed_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedSignedKey {
+
+    @Id
+    @Column(name = "api_key_id")
+    private Long apiKeyId;
+
+    // expires_at da chave apagada (null = não expira) — depois disso a linha pode ser apagada
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Builder.Default
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private LocalDateTime revokedAt = LocalDateTime.now();
+}
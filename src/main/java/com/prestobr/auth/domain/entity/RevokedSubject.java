@@ -0,0 +1,28 @@
+package com.prestobr.auth.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Entidade que revoga todos os tokens de um usuário emitidos até revokedBefore.
+
+@Entity
+@Table(name = "revoked_subjects")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedSubject {
+
+    @Id
+    private String username;
+
+    @Column(name = "revoked_before", nullable = false)
+    private Instant revokedBefore;
+
+    // Quando o último token afetado expira — depois disso a linha pode ser apagada
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
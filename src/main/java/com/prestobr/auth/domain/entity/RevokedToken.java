@@ -0,0 +1,30 @@
+package com.prestobr.auth.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Entidade que representa um token JWT revogado antes de expirar, identificado pelo "jti".
+
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    private UUID jti;
+
+    // "exp" do token revogado — depois disso a linha pode ser apagada
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Builder.Default
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private Instant revokedAt = Instant.now();
+}
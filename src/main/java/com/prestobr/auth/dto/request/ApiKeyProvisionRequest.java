@@ -0,0 +1,24 @@
+package com.prestobr.auth.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// DTO com os dados de uma API Key criada pelo admin para outro usuário (criação em massa)
+@Getter
+public class ApiKeyProvisionRequest {
+
+    @NotBlank
+    private String username;
+
+    @NotBlank
+    private String description;
+
+    @NotEmpty
+    private Set<String> roles;
+
+    private LocalDateTime expiresAt; // null = sem expiração
+}
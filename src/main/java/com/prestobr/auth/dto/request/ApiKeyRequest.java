@@ -18,4 +18,7 @@ public class ApiKeyRequest {
     private Set<String> roles;
 
     private LocalDateTime expiresAt; // null = sem expiração
+
+    // true = chave assinada, verificada sem consulta a banco/cache (integrações de alto volume)
+    private boolean signed;
 }
@@ -0,0 +1,16 @@
+package com.prestobr.auth.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+import java.util.List;
+
+// DTO para criação de API Keys em massa — cada linha é validada separadamente, com resultado por linha
+@Getter
+public class BulkApiKeyRequest {
+
+    @NotEmpty
+    @Size(max = 50000)
+    private List<ApiKeyProvisionRequest> apiKeys;
+}
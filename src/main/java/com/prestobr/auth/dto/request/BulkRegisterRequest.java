@@ -0,0 +1,16 @@
+package com.prestobr.auth.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+import java.util.List;
+
+// DTO para cadastro de usuários em massa — cada linha é validada separadamente, com resultado por linha
+@Getter
+public class BulkRegisterRequest {
+
+    @NotEmpty
+    @Size(max = 50000)
+    private List<RegisterRequest> users;
+}
@@ -0,0 +1,19 @@
+package com.prestobr.auth.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+import java.util.List;
+
+// DTO da introspecção em lote — resposta na mesma ordem da lista
+@Getter
+public class IntrospectionBatchRequest {
+
+    public static final int MAX_TOKENS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_TOKENS)
+    private List<@Valid IntrospectionRequest> tokens;
+}
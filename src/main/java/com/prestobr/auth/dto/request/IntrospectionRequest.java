@@ -0,0 +1,12 @@
+package com.prestobr.auth.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+
+// Uma credencial a introspectar: token JWT ou API Key ("pb_..." / "pbs_...") — o tipo é reconhecido pelo formato
+@Getter
+public class IntrospectionRequest {
+
+    @NotBlank
+    private String token;
+}
@@ -0,0 +1,12 @@
+package com.prestobr.auth.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+
+// DTO com o refresh token para obter um novo access token
+@Getter
+public class RefreshRequest {
+
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,28 @@
+package com.prestobr.auth.dto.response;
+
+import com.prestobr.auth.domain.entity.AuditEvent;
+
+import java.time.Instant;
+
+public record AuditEventResponse(
+        Long id,
+        Instant occurredAt,
+        AuditEvent.Type type,
+        String username,
+        String actor,
+        Long targetId,
+        String ip,
+        String detail) {
+    public static AuditEventResponse from(AuditEvent event) {
+        return new AuditEventResponse(
+                event.getId(),
+                event.getOccurredAt(),
+                event.getType(),
+                event.getUsername(),
+                event.getActor(),
+                event.getTargetId(),
+                event.getIp(),
+                event.getDetail()
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.prestobr.auth.dto.response;
+
+/**
+ * Resultado de uma linha de uma operação em massa.
+ * index é a posição da linha na requisição; value é preenchido se a linha foi criada, error se foi recusada.
+ */
+public record BulkItemResult<T>(int index, T value, String error) {
+
+    public static <T> BulkItemResult<T> created(int index, T value) {
+        return new BulkItemResult<>(index, value, null);
+    }
+
+    public static <T> BulkItemResult<T> rejected(int index, String error) {
+        return new BulkItemResult<>(index, null, error);
+    }
+}
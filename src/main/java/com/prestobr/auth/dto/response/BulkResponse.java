@@ -0,0 +1,12 @@
+package com.prestobr.auth.dto.response;
+
+import java.util.List;
+
+// Resumo de uma operação em massa, com o resultado de cada linha na ordem da requisição
+public record BulkResponse<T>(int created, int rejected, List<BulkItemResult<T>> results) {
+
+    public static <T> BulkResponse<T> of(List<BulkItemResult<T>> results) {
+        int created = (int) results.stream().filter(result -> result.error() == null).count();
+        return new BulkResponse<>(created, results.size() - created, results);
+    }
+}
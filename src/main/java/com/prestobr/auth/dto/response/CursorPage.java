@@ -0,0 +1,12 @@
+package com.prestobr.auth.dto.response;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem paginada por cursor (keyset no id).
+ *
+ * Para a próxima página, repetir a consulta com afterId = nextAfterId.
+ * nextAfterId é null na última página.
+ */
+public record CursorPage<T>(List<T> items, Long nextAfterId) {
+}
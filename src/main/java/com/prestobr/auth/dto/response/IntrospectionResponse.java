@@ -0,0 +1,37 @@
+package com.prestobr.auth.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Resultado da introspecção de uma credencial, nos nomes da RFC 7662 (seção 2.2).
+ * Credencial inválida, expirada ou revogada → só {"active": false}, sem dizer o motivo.
+ *
+ * exp e iat em epoch seconds; exp ausente = API Key sem expiração.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResponse(
+        boolean active,
+        @JsonProperty("token_type") String tokenType,
+        String sub,
+        String username,
+        List<String> roles,
+        Long exp,
+        Long iat,
+        String jti) {
+
+    public static final String ACCESS_TOKEN = "access_token";
+    public static final String API_KEY = "api_key";
+
+    private static final IntrospectionResponse INACTIVE = new IntrospectionResponse(false, null, null, null, null, null, null, null);
+
+    public static IntrospectionResponse inactive() {
+        return INACTIVE;
+    }
+
+    public static IntrospectionResponse active(String tokenType, String username, List<String> roles, Long exp, Long iat, String jti) {
+        return new IntrospectionResponse(true, tokenType, username, username, roles, exp, iat, jti);
+    }
+}
@@ -10,4 +10,6 @@ import lombok.Getter;
 public class LoginResponse {
     private String token;
     private String username;
+    private String refreshToken;
+    private long expiresIn; // validade do token em segundos
 }
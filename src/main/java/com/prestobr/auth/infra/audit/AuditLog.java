@@ -0,0 +1,230 @@
+package com.prestobr.auth.infra.audit;
+
+import com.prestobr.auth.domain.entity.AuditEvent;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.repository.AuditEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Trilha de auditoria gravada fora do caminho da requisição.
+ *
+ *   - record(): monta o evento e o coloca no AuditRingBuffer — um CAS, sem banco e sem lock.
+ *     Chamado dentro de uma transação, o evento só entra na fila no commit (afterCommit): um rollback
+ *     (ex.: constraint no flush) não deixa evento de uma chave ou mudança que não existe
+ *   - Uma thread ("audit-writer") esvazia a fila em lotes de até audit.batch-size eventos,
+ *     numa transação por lote (INSERT em batch, hibernate.jdbc.batch_size + reWriteBatchedInserts)
+ *   - Fila cheia (banco lento ou fora do ar): o evento é descartado e contado — o login nunca espera
+ *
+ * Métricas: audit.events{result=written|dropped|failed} e audit.buffer.size.
+ * No desligamento, o que ainda estiver na fila é gravado antes do pool de conexões fechar.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    // Tamanho das colunas em audit_events (V9) — um valor maior derrubaria o lote inteiro
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_IP_LENGTH = 45;
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final AuditEventRepository auditEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLog(AuditEventRepository auditEventRepository,
+                    TransactionTemplate transactionTemplate,
+                    MeterRegistry meterRegistry,
+                    @Value("${audit.enabled:true}") boolean enabled,
+                    @Value("${audit.buffer-capacity:65536}") int bufferCapacity,
+                    @Value("${audit.batch-size:500}") int batchSize,
+                    @Value("${audit.flush-interval-ms:200}") long flushIntervalMs) {
+        this.auditEventRepository = auditEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new AuditRingBuffer<>(bufferCapacity);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.failed = counter(meterRegistry, "failed");
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("audit.events")
+                .description("Audit events by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra um evento. Quem executou a ação e o IP vêm da requisição atual, quando houver.
+     *
+     * @param username usuário afetado
+     * @param targetId id do usuário ou da API Key afetada (pode ser null)
+     * @param detail   complemento livre (pode ser null)
+     */
+    public void record(AuditEvent.Type type, String username, Long targetId, String detail) {
+        if (!enabled) {
+            return;
+        }
+
+        AuditEvent event = AuditEvent.builder()
+                .occurredAt(Instant.now())
+                .type(type)
+                .username(truncate(username, MAX_NAME_LENGTH))
+                .actor(truncate(currentActor(), MAX_NAME_LENGTH))
+                .targetId(targetId)
+                .ip(truncate(currentIp(), MAX_IP_LENGTH))
+                .detail(detail)
+                .build();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::runWriter);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        }
+    }
+
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (drain(batch) == 0) {
+                // Fila vazia: espera o próximo ciclo — os produtores não acordam a thread (offer fica só no CAS)
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        // Desligando: grava o que sobrou
+        int drained;
+        do {
+            drained = drain(batch);
+        } while (drained > 0);
+    }
+
+    // Uma rodada: até batchSize eventos numa transação. Retorna quantos saíram da fila
+    int drain(List<AuditEvent> batch) {
+        int count = buffer.drainTo(batch, batchSize);
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> auditEventRepository.saveAll(batch));
+            written.increment(count);
+        } catch (RuntimeException e) {
+            // Sem retry: com o banco fora do ar, insistir só represaria a fila
+            failed.increment(count);
+            log.warn("Failed to write {} audit events: {}", count, e.getMessage());
+        } finally {
+            batch.clear();
+        }
+        return count;
+    }
+
+    // Partição do mês atual e do seguinte (UTC) — a do mês seguinte existe antes da virada
+    @Scheduled(fixedDelayString = "${audit.partition-check-interval-ms:21600000}")
+    public void ensurePartitions() {
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        try {
+            auditEventRepository.createPartition(month);
+            auditEventRepository.createPartition(month.plusMonths(1));
+        } catch (RuntimeException e) {
+            log.warn("Unable to create audit partitions for {}: {}", month, e.getMessage());
+        }
+    }
+
+    // Nomes das roles em ordem, separados por vírgula — detalhe dos eventos de mudança de roles
+    public static String roleNames(Collection<Role> roles) {
+        return roles.stream().map(Role::getName).sorted().collect(Collectors.joining(","));
+    }
+
+    int pending() {
+        return buffer.size();
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static String currentIp() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getRemoteAddr()
+                : null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,93 @@
+package com.prestobr.auth.infra.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fila circular limitada, sem lock: várias threads produzem, uma única thread consome.
+ *
+ * Cada posição tem um número de sequência que diz de quem é a vez:
+ *   - sequência == posição do produtor: livre — o produtor reserva a posição com um CAS no tail
+ *   - sequência == posição + 1: preenchida — o consumidor lê e devolve com posição + capacidade
+ *
+ * offer() nunca espera: com a fila cheia retorna false na hora (quem chama decide o que fazer).
+ * Capacidade arredondada para potência de 2 (índice por máscara).
+ */
+final class AuditRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Escrito só pelo consumidor; volatile para size() em outras threads
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.setPlain(i, i);
+        }
+    }
+
+    // Thread-safe; false se a fila estiver cheia
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long distance = sequences.getAcquire(index) - position;
+
+            if (distance == 0) {
+                long witness = tail.compareAndExchange(position, position + 1);
+                if (witness == position) {
+                    slots.setPlain(index, element);
+                    // Publica o elemento: o consumidor só lê depois de ver a sequência nova
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = witness;
+            } else if (distance < 0) {
+                // Posição ainda ocupada pela volta anterior — fila cheia
+                return false;
+            } else {
+                // Outro produtor reservou esta posição — tenta a seguinte
+                position = tail.get();
+            }
+        }
+    }
+
+    // Só a thread consumidora. Move até max elementos, na ordem de chegada, e retorna quantos
+    int drainTo(Collection<? super E> sink, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                break;
+            }
+            sink.add(slots.getPlain(index));
+            slots.setPlain(index, null);
+            sequences.setRelease(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
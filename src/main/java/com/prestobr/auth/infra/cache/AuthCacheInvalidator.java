@@ -0,0 +1,94 @@
+package com.prestobr.auth.infra.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.infra.datasource.RecentWriters;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.TokenRevocationList;
+import com.prestobr.auth.infra.security.VerifiedTokenCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aplica nos caches locais os eventos de alteração recebidos do Postgres.
+ *
+ * Remove ou recarrega só as entradas afetadas pelo evento — o resto do cache continua quente.
+ * Não depende de JDBC, então pode ser testado sem banco (o AuthChangeListener só repassa o payload).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthCacheInvalidator {
+
+    private final ObjectMapper objectMapper;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final ApiKeyPrincipalCache apiKeyPrincipalCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final RoleCatalog roleCatalog;
+    private final RecentWriters recentWriters;
+
+    // Trata o payload cru de um NOTIFY
+    public void handle(String payload) {
+        AuthChangeEvent event;
+        try {
+            event = objectMapper.readValue(payload, AuthChangeEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed auth change notification: {}", payload);
+            return;
+        }
+        handle(event);
+    }
+
+    public void handle(AuthChangeEvent event) {
+        // Revogações chegam com os dados completos — aplicadas direto na memória, sem ir ao banco
+        if (event.isRevokedToken() && event.jti() != null && event.expiresAt() != null) {
+            tokenRevocationList.applyRevokedToken(event.jti(), event.expiresAt());
+            return;
+        }
+        if (event.isRevokedSubject() && event.username() != null
+                && event.revokedBefore() != null && event.expiresAt() != null) {
+            tokenRevocationList.applyRevokedSubject(event.username(), event.revokedBefore(), event.expiresAt());
+            return;
+        }
+
+        // Catálogo de roles é pequeno — recarregado inteiro
+        if (event.isRole()) {
+            roleCatalog.reload();
+            return;
+        }
+
+        if (event.id() == null) {
+            return;
+        }
+
+        if (event.isUser()) {
+            // Usuário alterado (ativo, roles, username): tokens dele saem do cache e
+            // as API Keys dele são recarregadas (somem se o usuário foi desativado).
+            // Tirar do cache não basta para um JWT ainda válido: a desativação chega também como
+            // revoked_subject (trigger de V13), que o recusa até o "exp".
+            // Alteração feita em qualquer nó: o próximo login dele lê do primário (RecentWriters)
+            if (event.username() != null) {
+                verifiedTokenCache.invalidateSubject(event.username());
+                recentWriters.record(event.username());
+            }
+            apiKeyPrincipalCache.refreshUser(event.id());
+        } else if (event.isApiKey()) {
+            apiKeyPrincipalCache.refresh(event.id());
+        } else {
+            log.debug("Ignoring auth change for unknown entity {}", event.entity());
+        }
+    }
+
+    /**
+     * Reconstrói todos os caches. Usado quando a conexão de LISTEN cai —
+     * eventos publicados enquanto ela estava fora não são reenviados pelo Postgres.
+     */
+    public void resyncAll() {
+        roleCatalog.reload();
+        verifiedTokenCache.invalidateAll();
+        apiKeyPrincipalCache.reload();
+        tokenRevocationList.reload();
+    }
+}
@@ -0,0 +1,46 @@
+package com.prestobr.auth.infra.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * Evento publicado pelo Postgres (NOTIFY no canal "auth_changes") quando
+ * um usuário, suas roles, uma API Key, as roles dela ou o catálogo de roles mudam, ou quando
+ * um token é revogado. Ver V3__auth_change_notify.sql, V5__token_revocations.sql e V6__role_change_notify.sql.
+ * Datas vêm em epoch (segundos).
+ */
+public record AuthChangeEvent(
+        String entity,
+        Long id,
+        String username,
+        UUID jti,
+        @JsonProperty("revoked_before") Long revokedBefore,
+        @JsonProperty("expires_at") Long expiresAt) {
+
+    public static final String USER = "user";
+    public static final String API_KEY = "api_key";
+    public static final String ROLE = "role";
+    public static final String REVOKED_TOKEN = "revoked_token";
+    public static final String REVOKED_SUBJECT = "revoked_subject";
+
+    public boolean isUser() {
+        return USER.equals(entity);
+    }
+
+    public boolean isApiKey() {
+        return API_KEY.equals(entity);
+    }
+
+    public boolean isRole() {
+        return ROLE.equals(entity);
+    }
+
+    public boolean isRevokedToken() {
+        return REVOKED_TOKEN.equals(entity);
+    }
+
+    public boolean isRevokedSubject() {
+        return REVOKED_SUBJECT.equals(entity);
+    }
+}
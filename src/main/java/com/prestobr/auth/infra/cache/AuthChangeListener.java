@@ -0,0 +1,114 @@
+package com.prestobr.auth.infra.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Escuta o canal "auth_changes" do Postgres (LISTEN/NOTIFY) e repassa cada evento ao AuthCacheInvalidator.
+ *
+ * Assim cada réplica do serviço mantém caches locais agressivos (tokens, API Keys) sem cache
+ * compartilhado e sem autorizações desatualizadas: uma alteração feita em qualquer nó chega
+ * a todos os outros logo após o commit.
+ *
+ * Usa uma conexão dedicada, fora do pool do Hikari, que fica aberta enquanto a aplicação roda.
+ * Se a conexão cair, reconecta e ressincroniza tudo — o Postgres não reenvia eventos perdidos.
+ *
+ * Pode ser desligado com auth.cache.notify.enabled=false (ex.: testes sem Postgres).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.cache.notify.enabled", havingValue = "true", matchIfMissing = true)
+public class AuthChangeListener implements SmartLifecycle {
+
+    static final String CHANNEL = "auth_changes";
+
+    private static final int POLL_TIMEOUT_MS = 5_000;
+    private static final long RECONNECT_DELAY_MS = 2_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final AuthCacheInvalidator authCacheInvalidator;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("auth-change-listener")
+                .daemon()
+                .start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                // Eventos publicados antes do LISTEN (inicialização ou queda da conexão) foram perdidos
+                authCacheInvalidator.resyncAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        authCacheInvalidator.handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Auth change listener disconnected, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
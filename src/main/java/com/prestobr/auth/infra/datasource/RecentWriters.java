@@ -0,0 +1,42 @@
+package com.prestobr.auth.infra.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Usernames que escreveram ou foram alterados há menos de spring.datasource.replica.pin-after-write-ms.
+ *
+ * Leituras desses usuários ficam no primário até a réplica alcançar a escrita; os demais leem da réplica.
+ *
+ *   - ReplicaRoutingFilter: o principal de cada requisição de escrita
+ *   - AuthService/CustomUserDetailsService: o usuário alterado neste nó, logo após a escrita
+ *   - AuthCacheInvalidator: o usuário de cada evento "user" do NOTIFY — cobre escritas feitas em outros nós
+ *
+ * Entradas expiram sozinhas após a janela.
+ */
+@Component
+public class RecentWriters {
+
+    private static final long MAX_RECENT_WRITERS = 100_000;
+
+    private final Cache<String, Boolean> writers;
+
+    public RecentWriters(@Value("${spring.datasource.replica.pin-after-write-ms:5000}") long pinAfterWriteMs) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(pinAfterWriteMs))
+                .maximumSize(MAX_RECENT_WRITERS)
+                .build();
+    }
+
+    public void record(String username) {
+        writers.put(username, Boolean.TRUE);
+    }
+
+    public boolean contains(String username) {
+        return writers.getIfPresent(username) != null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.prestobr.auth.infra.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Política de staleness da réplica: mede o atraso de replicação periodicamente e só libera
+ * leituras na réplica enquanto ele estiver dentro de spring.datasource.replica.max-lag-ms.
+ *
+ * Réplica fora do ar, atraso desconhecido ou acima do limite → as leituras voltam para o primário
+ * até a próxima medição boa. Atraso atual em "datasource.replica.lag" (ms, -1 = desconhecido).
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final long UNKNOWN = -1;
+
+    // Fora de recovery = um Postgres comum fazendo papel de réplica (ambiente local) — atraso zero.
+    // Tudo recebido já aplicado = réplica em dia, mesmo com o primário parado há tempo sem escrita.
+    // Nada aplicado ainda (timestamp null) = desconhecido.
+    static final String LAG_QUERY = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint
+                   END""";
+
+    private final DataSource replica;
+    private final long maxLagMillis;
+
+    private volatile long lagMillis = UNKNOWN;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replication lag of the read replica in milliseconds (-1 when unknown)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // Consultado a cada leitura read-only — só um volatile, sem ir ao banco
+    public boolean isFresh() {
+        long lag = lagMillis;
+        return lag != UNKNOWN && lag <= maxLagMillis;
+    }
+
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.lag-check-interval-ms:2000}")
+    public void check() {
+        long lag;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            lag = result.next() ? result.getLong(1) : UNKNOWN;
+            if (result.wasNull()) {
+                lag = UNKNOWN;
+            }
+        } catch (SQLException e) {
+            if (lagMillis != UNKNOWN) {
+                log.warn("Read replica unreachable, routing reads to the primary: {}", e.getMessage());
+            }
+            lag = UNKNOWN;
+        }
+        record(lag);
+    }
+
+    void record(long lag) {
+        boolean wasFresh = isFresh();
+        lagMillis = Math.max(lag, UNKNOWN);
+        boolean fresh = isFresh();
+
+        if (wasFresh && !fresh) {
+            log.warn("Read replica lag {} ms exceeds {} ms, routing reads to the primary", lagMillis, maxLagMillis);
+        } else if (!wasFresh && fresh) {
+            log.info("Read replica within {} ms of the primary, routing read-only transactions to it", maxLagMillis);
+        }
+    }
+}
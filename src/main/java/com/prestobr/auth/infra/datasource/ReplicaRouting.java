@@ -0,0 +1,55 @@
+package com.prestobr.auth.infra.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Fixa leituras da thread atual no primário — para leituras que não podem ver dados atrasados.
+ *
+ * Transações read-only vão para a réplica (ver ReplicaRoutingDataSource), exceto dentro de um pin:
+ *
+ *   try (ReplicaRouting.Pin pin = ReplicaRouting.pinToPrimary()) { ... }
+ *   ReplicaRouting.onPrimary(() -> repository.findAll())
+ *
+ * Pins aninhados são permitidos — só o mais externo desfaz. Sem réplica configurada não tem efeito.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private static final Pin NESTED = () -> { };
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static Pin pinToPrimary() {
+        if (isPinnedToPrimary()) {
+            return NESTED;
+        }
+        PINNED.set(Boolean.TRUE);
+        return PINNED::remove;
+    }
+
+    public static <T> T onPrimary(Supplier<T> read) {
+        try (Pin pin = pinToPrimary()) {
+            return read.get();
+        }
+    }
+
+    public static void onPrimary(Runnable read) {
+        try (Pin pin = pinToPrimary()) {
+            read.run();
+        }
+    }
+
+    // AutoCloseable sem exceção checada — cabe num try-with-resources em qualquer lugar
+    @FunctionalInterface
+    public interface Pin extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
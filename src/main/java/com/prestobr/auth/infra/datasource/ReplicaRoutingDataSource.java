@@ -0,0 +1,47 @@
+package com.prestobr.auth.infra.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Destino das conexões read-only: a réplica, ou o primário quando a leitura está fixada
+ * (ReplicaRouting) ou a réplica está atrasada demais (ReplicaLagMonitor).
+ *
+ * Não é usado direto — fica atrás de um LazyConnectionDataSourceProxy (ver readWriteSplitting).
+ * A conexão física só é obtida no primeiro statement, quando o JpaTransactionManager já marcou
+ * a conexão como read-only; transações de escrita e código sem transação seguem no primário.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * DataSource da aplicação: escrita no primário, transações read-only na réplica.
+     */
+    public static DataSource readWriteSplitting(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, lagMonitor));
+        return proxy;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReplicaRouting.isPinnedToPrimary() || !lagMonitor.isFresh()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,84 @@
+package com.prestobr.auth.infra.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/* Read-your-writes por requisição — roda depois da autenticação (ver SecurityConfig).
+ *
+ *   - POST/PUT/PATCH/DELETE: a requisição inteira fica no primário (ex.: leitura antes de um save)
+ *   - POST /v1/auth/login: exceção — a única leitura é a busca do usuário, e o CustomUserDetailsService
+ *     só a fixa no primário para usuários alterados há pouco (RecentWriters)
+ *   - GET de quem escreveu há menos de spring.datasource.replica.pin-after-write-ms: também no primário,
+ *     para o cliente não deixar de ver o que acabou de gravar
+ *   - Demais GETs: transações read-only podem ir para a réplica
+ *
+ * Sem réplica configurada não faz nada.
+ */
+@Component
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/v1/auth/login";
+
+    private final boolean replicaConfigured;
+
+    // Quem escreveu recentemente (nome do principal)
+    private final RecentWriters recentWriters;
+
+    public ReplicaRoutingFilter(
+            @Value("${spring.datasource.replica.url:}") String replicaUrl,
+            RecentWriters recentWriters
+    ) {
+        this.replicaConfigured = StringUtils.hasText(replicaUrl);
+        this.recentWriters = recentWriters;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!replicaConfigured || isLogin(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String principal = principalName();
+        boolean write = !isSafe(request.getMethod());
+
+        if (!write && (principal == null || !recentWriters.contains(principal))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (ReplicaRouting.Pin pin = ReplicaRouting.pinToPrimary()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (write && principal != null) {
+                recentWriters.record(principal);
+            }
+        }
+    }
+
+    private static boolean isLogin(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static String principalName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+}
@@ -0,0 +1,70 @@
+package com.prestobr.auth.infra.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência por etapa da autenticação, a partir dos histogramas do AuthMetrics (apenas ADMIN):
+ *
+ *   GET /actuator/authlatency → por timer e tags: contagem, média, máximo e p50/p95/p99 em ms
+ *
+ * Visão rápida para comparar cripto (auth.token.*, auth.password), Postgres (auth.user.lookup)
+ * e o login completo sem montar um dashboard. Os percentis são da janela recente do Micrometer.
+ */
+@Component
+@Endpoint(id = "authlatency")
+@RequiredArgsConstructor
+public class AuthLatencyEndpoint {
+
+    private final AuthMetrics authMetrics;
+
+    @ReadOperation
+    public List<StageLatency> stages() {
+        return authMetrics.timers().stream()
+                .map(AuthLatencyEndpoint::toStage)
+                .toList();
+    }
+
+    private static StageLatency toStage(Timer timer) {
+        Meter.Id id = timer.getId();
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (Tag tag : id.getTags()) {
+            tags.put(tag.getKey(), tag.getValue());
+        }
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+        }
+
+        return new StageLatency(
+                id.getName(),
+                tags,
+                snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS),
+                percentiles
+        );
+    }
+
+    public record StageLatency(String name,
+                               Map<String, String> tags,
+                               long count,
+                               double meanMs,
+                               double maxMs,
+                               Map<String, Double> percentilesMs) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.prestobr.auth.infra.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do caminho quente da autenticação — uma por etapa, para separar cripto, JSON e Postgres:
+ *
+ *   - auth.token.verify{result=valid|invalid}               parse + assinatura + claims do JWT
+ *   - auth.token.issue                                      montagem e assinatura do JWT no login/refresh
+ *   - auth.password{operation=encode|matches}               BCrypt, medido dentro do pool (sem a espera na fila)
+ *   - auth.user.lookup{result=found|not_found}              query do usuário no login
+ *   - auth.login{outcome=success|bad_credentials|disabled|busy}
+ *   - auth.api-key{type=standard|signed, result=authenticated|rejected}
+ *
+ * Acertos e faltas do cache de tokens já saem em cache.gets{cache=jwt.verified-tokens} (CaffeineCacheMetrics).
+ *
+ * Tags só com valores fixos (nada de username, IP ou rota) e timers criados uma vez aqui —
+ * registrar no caminho quente é só um record(), sem lookup no registry.
+ * Todos publicam histograma e p50/p95/p99 (ver AuthLatencyEndpoint e /actuator/metrics).
+ */
+@Component
+public class AuthMetrics {
+
+    private final Timer tokenVerifyValid;
+    private final Timer tokenVerifyInvalid;
+    private final Timer tokenIssue;
+    private final Timer passwordEncode;
+    private final Timer passwordMatches;
+    private final Timer userLookupFound;
+    private final Timer userLookupNotFound;
+    private final Timer loginSuccess;
+    private final Timer loginBadCredentials;
+    private final Timer loginDisabled;
+    private final Timer loginBusy;
+    private final Timer apiKeyAuthenticated;
+    private final Timer apiKeyRejected;
+    private final Timer signedApiKeyAuthenticated;
+    private final Timer signedApiKeyRejected;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.tokenVerifyValid = timer(registry, "auth.token.verify", "Verificação de JWT", "result", "valid");
+        this.tokenVerifyInvalid = timer(registry, "auth.token.verify", "Verificação de JWT", "result", "invalid");
+        this.tokenIssue = timer(registry, "auth.token.issue", "Emissão de JWT");
+        this.passwordEncode = timer(registry, "auth.password", "Hash de senha", "operation", "encode");
+        this.passwordMatches = timer(registry, "auth.password", "Hash de senha", "operation", "matches");
+        this.userLookupFound = timer(registry, "auth.user.lookup", "Busca do usuário no login", "result", "found");
+        this.userLookupNotFound = timer(registry, "auth.user.lookup", "Busca do usuário no login", "result", "not_found");
+        this.loginSuccess = timer(registry, "auth.login", "Login", "outcome", "success");
+        this.loginBadCredentials = timer(registry, "auth.login", "Login", "outcome", "bad_credentials");
+        this.loginDisabled = timer(registry, "auth.login", "Login", "outcome", "disabled");
+        this.loginBusy = timer(registry, "auth.login", "Login", "outcome", "busy");
+        this.apiKeyAuthenticated = timer(registry, "auth.api-key", "Autenticação por API Key", "type", "standard", "result", "authenticated");
+        this.apiKeyRejected = timer(registry, "auth.api-key", "Autenticação por API Key", "type", "standard", "result", "rejected");
+        this.signedApiKeyAuthenticated = timer(registry, "auth.api-key", "Autenticação por API Key", "type", "signed", "result", "authenticated");
+        this.signedApiKeyRejected = timer(registry, "auth.api-key", "Autenticação por API Key", "type", "signed", "result", "rejected");
+    }
+
+    // Início de uma medição — passar o valor para o record* correspondente
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    public void recordTokenVerify(long startNanos, boolean valid) {
+        record(valid ? tokenVerifyValid : tokenVerifyInvalid, startNanos);
+    }
+
+    public void recordTokenIssue(long startNanos) {
+        record(tokenIssue, startNanos);
+    }
+
+    public void recordPasswordEncode(long startNanos) {
+        record(passwordEncode, startNanos);
+    }
+
+    public void recordPasswordMatches(long startNanos) {
+        record(passwordMatches, startNanos);
+    }
+
+    public void recordUserLookup(long startNanos, boolean found) {
+        record(found ? userLookupFound : userLookupNotFound, startNanos);
+    }
+
+    public void recordLogin(long startNanos, LoginOutcome outcome) {
+        record(switch (outcome) {
+            case SUCCESS -> loginSuccess;
+            case BAD_CREDENTIALS -> loginBadCredentials;
+            case DISABLED -> loginDisabled;
+            case BUSY -> loginBusy;
+        }, startNanos);
+    }
+
+    public void recordApiKey(long startNanos, boolean signed, boolean authenticated) {
+        Timer timer = signed
+                ? (authenticated ? signedApiKeyAuthenticated : signedApiKeyRejected)
+                : (authenticated ? apiKeyAuthenticated : apiKeyRejected);
+        record(timer, startNanos);
+    }
+
+    // Timers expostos no AuthLatencyEndpoint
+    public List<Timer> timers() {
+        return List.of(tokenVerifyValid, tokenVerifyInvalid, tokenIssue, passwordEncode, passwordMatches,
+                userLookupFound, userLookupNotFound, loginSuccess, loginBadCredentials, loginDisabled, loginBusy,
+                apiKeyAuthenticated, apiKeyRejected, signedApiKeyAuthenticated, signedApiKeyRejected);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                // Faixa do histograma: de uma verificação HMAC em cache a um BCrypt na fila cheia
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+    }
+
+    public enum LoginOutcome {
+        SUCCESS, BAD_CREDENTIALS, DISABLED, BUSY
+    }
+}
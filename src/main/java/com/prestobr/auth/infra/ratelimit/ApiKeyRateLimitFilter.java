@@ -0,0 +1,55 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import com.prestobr.auth.infra.security.ApiKeyAuthFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/* Rate limit das requisições com "X-API-Key" — roda logo depois do ApiKeyAuthFilter (ver SecurityConfig).
+ *
+ *   - Chave verificada: um token do bucket da chave, pelo id (ApiKeyAuthFilter.VERIFIED_KEY_ID_ATTRIBUTE)
+ *   - Chave inválida: um token do bucket do IP — quem conhece só a parte pública de uma chave
+ *     não consegue esvaziar o bucket dela
+ *
+ * Requisição já autenticada por JWT não passa pela verificação da chave e segue sem cobrança aqui.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiters rateLimiters;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!rateLimiters.isEnabled() || request.getHeader(ApiKeyAuthFilter.API_KEY_HEADER) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Object keyId = request.getAttribute(ApiKeyAuthFilter.VERIFIED_KEY_ID_ATTRIBUTE);
+        long retryAfterMillis;
+        if (keyId != null) {
+            retryAfterMillis = rateLimiters.apiKey().tryAcquire(keyId.toString());
+        } else if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            // Autenticada por JWT — o ApiKeyAuthFilter nem conferiu a chave
+            retryAfterMillis = 0;
+        } else {
+            retryAfterMillis = rateLimiters.loginIp().tryAcquire(request.getRemoteAddr());
+        }
+
+        if (RateLimitFilter.reject(retryAfterMillis, response)) {
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,42 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import com.prestobr.auth.infra.ratelimit.TokenBucketLimiter.Stats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Estado dos rate limiters no actuator (apenas ADMIN, ver SecurityConfig):
+ *
+ *   GET /actuator/ratelimits                  → por limiter: configuração, chaves ativas, liberadas e recusadas
+ *   GET /actuator/ratelimits/{limiter}/{key}  → tokens disponíveis agora para uma chave (ex.: login-username/maria)
+ */
+@Component
+@Endpoint(id = "ratelimits")
+@RequiredArgsConstructor
+public class RateLimitEndpoint {
+
+    private final RateLimiters rateLimiters;
+
+    @ReadOperation
+    public List<Stats> limiters() {
+        return rateLimiters.all().stream()
+                .map(TokenBucketLimiter::stats)
+                .toList();
+    }
+
+    // null → 404 no actuator
+    @ReadOperation
+    public BucketState bucket(@Selector String limiter, @Selector String key) {
+        return rateLimiters.byName(limiter)
+                .map(found -> new BucketState(limiter, key, found.available(key)))
+                .orElse(null);
+    }
+
+    public record BucketState(String limiter, String key, double availableTokens) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Lançada quando um limiter recusa a requisição dentro de um controller (ex.: introspecção).
+ * Vira um 429 com Retry-After, o mesmo que o RateLimitFilter responde.
+ */
+public class RateLimitExceededException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterMillis) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded. Retry later.");
+        this.retryAfterSeconds = Math.ceilDiv(retryAfterMillis, 1000);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
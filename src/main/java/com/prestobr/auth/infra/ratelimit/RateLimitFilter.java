@@ -0,0 +1,183 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/* Filtro de rate limit do login — roda antes do JwtAuthFilter e do ApiKeyAuthFilter (ver SecurityConfig).
+ *
+ *   - POST /v1/auth/login: um token do bucket do IP e um do bucket do username do corpo
+ *   - Corpo acima de MAX_LOGIN_BODY_BYTES (413) ou sem username legível (400) é recusado aqui —
+ *     um login que escapasse do bucket do username anularia a defesa contra força bruta distribuída
+ *
+ * Sem token, responde 429 com Retry-After na hora — a tentativa de login não chega ao
+ * AuthenticationManager, ou seja, não paga o BCrypt. As API Keys são limitadas depois da
+ * verificação, no ApiKeyRateLimitFilter.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/v1/auth/login";
+
+    // Corpo de login é {"username","password"} — acima disso nem tenta achar o username
+    private static final int MAX_LOGIN_BODY_BYTES = 8 * 1024;
+
+    private final RateLimiters rateLimiters;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!rateLimiters.isEnabled() || !isLogin(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (reject(rateLimiters.loginIp().tryAcquire(request.getRemoteAddr()), response)) {
+            return;
+        }
+
+        BufferedBodyRequest buffered = new BufferedBodyRequest(request);
+        if (buffered.head().length > MAX_LOGIN_BODY_BYTES) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Login body too large.");
+            return;
+        }
+        String username = readUsername(buffered.head());
+        if (username == null) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Login body must be a JSON object with a username.");
+            return;
+        }
+        if (reject(rateLimiters.loginUsername().tryAcquire(username), response)) {
+            return;
+        }
+
+        filterChain.doFilter(buffered, response);
+    }
+
+    private static boolean isLogin(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    // Username do corpo do login; null se o corpo não for JSON ou não tiver username em texto
+    private String readUsername(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // 429 com Retry-After quando o limiter recusou (retryAfterMillis > 0) — também usado pelo ApiKeyRateLimitFilter
+    static boolean reject(long retryAfterMillis, HttpServletResponse response) throws IOException {
+        if (retryAfterMillis == 0) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.ceilDiv(retryAfterMillis, 1000)));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded. Retry later.");
+        return true;
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + message + "\"}");
+    }
+
+    /**
+     * Lê o início do corpo (até MAX_LOGIN_BODY_BYTES + 1) para achar o username e devolve ao
+     * controller o corpo completo: o trecho lido seguido do que ainda está no stream original.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private boolean consumed;
+
+        BufferedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.head = request.getInputStream().readNBytes(MAX_LOGIN_BODY_BYTES + 1);
+        }
+
+        byte[] head() {
+            return head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (consumed) {
+                throw new IllegalStateException("Request body already read");
+            }
+            consumed = true;
+            InputStream body = new SequenceInputStream(new ByteArrayInputStream(head), super.getInputStream());
+            return new ServletInputStream() {
+
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = body.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = body.read(b, off, len);
+                    finished = read < 0;
+                    return read;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Async read is not supported on the buffered login body");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import com.prestobr.auth.dto.request.IntrospectionBatchRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Os limiters da aplicação, configurados em rate-limit.*:
+ *
+ *   - login-ip: tentativas de login e API Keys inválidas por IP do cliente (credential stuffing de uma origem)
+ *   - login-username: tentativas de login por username (força bruta distribuída numa conta)
+ *   - api-key: requisições por API Key já verificada (id da chave)
+ *   - introspect: credenciais introspectadas por quem chama — um token por credencial, o lote
+ *     inteiro de uma vez (contra varredura de tokens, RFC 7662 §4)
+ *
+ * Cada tentativa de login custa uma verificação BCrypt — recusar antes do AuthenticationManager
+ * é o que impede um pico de tentativas de virar CPU esgotada.
+ */
+@Slf4j
+@Component
+public class RateLimiters {
+
+    private final boolean enabled;
+    private final TokenBucketLimiter loginIp;
+    private final TokenBucketLimiter loginUsername;
+    private final TokenBucketLimiter apiKey;
+    private final TokenBucketLimiter introspect;
+
+    public RateLimiters(
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.max-keys:100000}") int maxKeys,
+            @Value("${rate-limit.login-ip.capacity:20}") long loginIpCapacity,
+            @Value("${rate-limit.login-ip.refill-per-minute:20}") long loginIpRefill,
+            @Value("${rate-limit.login-username.capacity:5}") long loginUsernameCapacity,
+            @Value("${rate-limit.login-username.refill-per-minute:5}") long loginUsernameRefill,
+            @Value("${rate-limit.api-key.capacity:200}") long apiKeyCapacity,
+            @Value("${rate-limit.api-key.refill-per-minute:6000}") long apiKeyRefill,
+            @Value("${rate-limit.introspect.capacity:1000}") long introspectCapacity,
+            @Value("${rate-limit.introspect.refill-per-minute:60000}") long introspectRefill
+    ) {
+        // Um lote cheio precisa caber no bucket, senão nunca seria aceito
+        if (introspectCapacity < IntrospectionBatchRequest.MAX_TOKENS) {
+            throw new IllegalArgumentException("rate-limit.introspect.capacity must be at least " + IntrospectionBatchRequest.MAX_TOKENS);
+        }
+        this.enabled = enabled;
+        this.loginIp = new TokenBucketLimiter("login-ip", loginIpCapacity, loginIpRefill, maxKeys);
+        this.loginUsername = new TokenBucketLimiter("login-username", loginUsernameCapacity, loginUsernameRefill, maxKeys);
+        this.apiKey = new TokenBucketLimiter("api-key", apiKeyCapacity, apiKeyRefill, maxKeys);
+        this.introspect = new TokenBucketLimiter("introspect", introspectCapacity, introspectRefill, maxKeys);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TokenBucketLimiter loginIp() {
+        return loginIp;
+    }
+
+    public TokenBucketLimiter loginUsername() {
+        return loginUsername;
+    }
+
+    public TokenBucketLimiter apiKey() {
+        return apiKey;
+    }
+
+    public TokenBucketLimiter introspect() {
+        return introspect;
+    }
+
+    public List<TokenBucketLimiter> all() {
+        return List.of(loginIp, loginUsername, apiKey, introspect);
+    }
+
+    public Optional<TokenBucketLimiter> byName(String name) {
+        return all().stream().filter(limiter -> limiter.name().equals(name)).findFirst();
+    }
+
+    // Varredura periódica dos buckets ociosos — a memória acompanha só os clientes ativos
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        int evicted = 0;
+        for (TokenBucketLimiter limiter : all()) {
+            evicted += limiter.evictIdle();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por chave (username, IP, API Key), sem lock.
+ *
+ * Cada bucket é um único AtomicLong com o estado empacotado, atualizado por CAS:
+ *   - 32 bits altos: instante do último refill, em ms desde a criação do limiter (circular, ~49 dias)
+ *   - 32 bits baixos: tokens disponíveis em frações de 1/60000 — o refill por ms é exatamente
+ *     refillPerMinute frações, sem ponto flutuante
+ *
+ * O mapa de buckets é um ConcurrentHashMap (já particionado internamente). Um bucket parado por
+ * mais que o tempo de encher do zero é igual a um bucket novo — evictIdle() o descarta.
+ *
+ * Com maxKeys chaves no mapa, uma chave nova não ganha bucket próprio: divide um bucket único de
+ * excesso com as outras chaves novas. Memória limitada mesmo sob varredura de IPs ou de chaves,
+ * e a varredura inline dos ociosos roda no máximo uma vez por INLINE_SWEEP_INTERVAL_MS.
+ */
+public final class TokenBucketLimiter {
+
+    static final long UNITS_PER_TOKEN = 60_000;
+
+    private static final long UNSIGNED_INT = 0xFFFF_FFFFL;
+
+    static final long INLINE_SWEEP_INTERVAL_MS = 1_000;
+
+    private final String name;
+    private final long capacityUnits;
+    private final long refillPerMinute;
+    private final long idleMillis;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final long origin;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow;
+    private final AtomicLong lastInlineSweep;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketLimiter(String name, long capacity, long refillPerMinute, int maxKeys) {
+        this(name, capacity, refillPerMinute, maxKeys, () -> System.nanoTime() / 1_000_000);
+    }
+
+    TokenBucketLimiter(String name, long capacity, long refillPerMinute, int maxKeys, LongSupplier clock) {
+        if (capacity < 1 || capacity * UNITS_PER_TOKEN > UNSIGNED_INT) {
+            throw new IllegalArgumentException("Rate limit capacity for " + name + " must be between 1 and " + UNSIGNED_INT / UNITS_PER_TOKEN);
+        }
+        if (refillPerMinute < 1) {
+            throw new IllegalArgumentException("Rate limit refill for " + name + " must be at least 1 per minute");
+        }
+        this.name = name;
+        this.capacityUnits = capacity * UNITS_PER_TOKEN;
+        this.refillPerMinute = refillPerMinute;
+        this.idleMillis = Math.ceilDiv(capacityUnits, refillPerMinute);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.overflow = new AtomicLong(pack(now(), capacityUnits));
+        this.lastInlineSweep = new AtomicLong(origin - INLINE_SWEEP_INTERVAL_MS);
+    }
+
+    /**
+     * Consome um token da chave. Retorna 0 se liberado; senão, quantos ms faltam para o próximo token.
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Consome permits tokens da chave de uma vez (tudo ou nada). Retorna 0 se liberado; senão,
+     * quantos ms faltam para haver permits tokens.
+     */
+    public long tryAcquire(String key, int permits) {
+        long needed = permits * UNITS_PER_TOKEN;
+        if (permits < 1 || needed > capacityUnits) {
+            throw new IllegalArgumentException("Rate limit " + name + " cannot grant " + permits + " tokens at once");
+        }
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(key);
+        }
+
+        while (true) {
+            long state = bucket.get();
+            long now = now();
+            long units = refill(state, now);
+
+            if (units < needed) {
+                rejected.increment();
+                return Math.max(1, Math.ceilDiv(needed - units, refillPerMinute));
+            }
+            if (bucket.compareAndSet(state, pack(now, units - needed))) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    // Como tryAcquire(key, permits), mas recusa com RateLimitExceededException (429 + Retry-After)
+    public void acquire(String key, int permits) {
+        long retryAfterMillis = tryAcquire(key, permits);
+        if (retryAfterMillis > 0) {
+            throw new RateLimitExceededException(retryAfterMillis);
+        }
+    }
+
+    // Bucket próprio enquanto houver espaço; no limite, o de excesso (compartilhado)
+    private AtomicLong newBucket(String key) {
+        if (buckets.size() >= maxKeys && !sweepInline()) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now(), capacityUnits)));
+    }
+
+    // Muitas chaves distintas (ex.: varredura de IPs) — limpa as ociosas, uma thread por intervalo
+    private boolean sweepInline() {
+        long now = clock.getAsLong();
+        long last = lastInlineSweep.get();
+        if (now - last >= INLINE_SWEEP_INTERVAL_MS && lastInlineSweep.compareAndSet(last, now)) {
+            evictIdle();
+        }
+        return buckets.size() < maxKeys;
+    }
+
+    // Tokens disponíveis agora para a chave (capacidade cheia se a chave não existe)
+    public double available(String key) {
+        AtomicLong bucket = buckets.get(key);
+        long units = bucket == null ? capacityUnits : refill(bucket.get(), now());
+        return (double) units / UNITS_PER_TOKEN;
+    }
+
+    // Remove buckets que já teriam enchido de novo — ficar sem eles não muda nenhuma decisão
+    public int evictIdle() {
+        long now = now();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> elapsed(bucket.get(), now) >= idleMillis);
+        return before - buckets.size();
+    }
+
+    public Stats stats() {
+        return new Stats(name, capacityUnits / UNITS_PER_TOKEN, refillPerMinute, buckets.size(), allowed.sum(), rejected.sum());
+    }
+
+    public String name() {
+        return name;
+    }
+
+    private long refill(long state, long now) {
+        long units = state & UNSIGNED_INT;
+        long elapsed = elapsed(state, now);
+        // elapsed * refillPerMinute estoura long só depois de anos parado — a capacidade limita antes
+        if (elapsed >= idleMillis) {
+            return capacityUnits;
+        }
+        return Math.min(capacityUnits, units + elapsed * refillPerMinute);
+    }
+
+    private static long elapsed(long state, long now) {
+        return (now - (state >>> 32)) & UNSIGNED_INT;
+    }
+
+    private long now() {
+        return (clock.getAsLong() - origin) & UNSIGNED_INT;
+    }
+
+    private static long pack(long now, long units) {
+        return (now << 32) | units;
+    }
+
+    public record Stats(String name, long capacity, long refillPerMinute, int trackedKeys, long allowed, long rejected) {
+    }
+}
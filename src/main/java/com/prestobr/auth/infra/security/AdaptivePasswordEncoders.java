@@ -0,0 +1,131 @@
+package com.prestobr.auth.infra.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monta o PasswordEncoder da aplicação: um DelegatingPasswordEncoder cujo custo do BCrypt
+ * é calibrado na inicialização contra a máquina em que o serviço está rodando.
+ *
+ *   - Hashes são gravados com id ("{bcrypt}$2a$..."); hashes antigos sem id são lidos como BCrypt
+ *   - Algoritmo de gravação configurável: bcrypt (padrão), pbkdf2 ou argon2 (exige BouncyCastle no classpath)
+ *   - Custo do BCrypt: o maior que cabe no orçamento de latência de verificação (security.password.target-ms)
+ *   - Hash com id ou parâmetros diferentes dos atuais é refeito no próximo login
+ *     (ver CustomUserDetailsService.updatePassword)
+ */
+@Slf4j
+public final class AdaptivePasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+    public static final String ARGON2 = "argon2";
+
+    // Abaixo disso o hash fica barato demais, mesmo em máquina lenta
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int CALIBRATION_ROUNDS = 3;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private AdaptivePasswordEncoders() {
+    }
+
+    /**
+     * @param idForEncode    algoritmo usado para gravar novos hashes
+     * @param bcryptStrength custo fixo do BCrypt; 0 para calibrar pelo orçamento
+     * @param targetLatency  tempo máximo desejado para uma verificação de senha
+     */
+    public static PasswordEncoder create(String idForEncode, int bcryptStrength, Duration targetLatency) {
+        int strength = bcryptStrength > 0 ? bcryptStrength : calibrateBCryptStrength(targetLatency);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new CalibratedBCryptPasswordEncoder(strength));
+        encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (isArgon2Available()) {
+            encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalStateException("Unsupported password algorithm: " + idForEncode
+                    + " (available: " + encoders.keySet() + ")");
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Hashes gravados antes do prefixo "{id}" (ex.: admin do V1) são BCrypt puro
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+
+        log.info("Password hashing: {} for new hashes, BCrypt strength {}", idForEncode, strength);
+        return encoder;
+    }
+
+    /**
+     * Mede o BCrypt no custo mínimo e escolhe o maior custo que ainda cabe no orçamento.
+     * Cada +1 no custo dobra o tempo, então basta uma medição.
+     */
+    static int calibrateBCryptStrength(Duration targetLatency) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        String hash = probe.encode(CALIBRATION_PASSWORD); // aquecimento
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.matches(CALIBRATION_PASSWORD, hash);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long budgetNanos = targetLatency.toNanos();
+        int strength = MIN_BCRYPT_STRENGTH;
+        long estimate = bestNanos;
+        while (strength < MAX_BCRYPT_STRENGTH && estimate * 2 <= budgetNanos) {
+            estimate *= 2;
+            strength++;
+        }
+
+        log.info("BCrypt calibration: {} ms at strength {}, selected strength {} (~{} ms, budget {} ms)",
+                Duration.ofNanos(bestNanos).toMillis(), MIN_BCRYPT_STRENGTH, strength,
+                Duration.ofNanos(estimate).toMillis(), targetLatency.toMillis());
+        return strength;
+    }
+
+    private static boolean isArgon2Available() {
+        return ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null);
+    }
+
+    /**
+     * BCrypt que refaz o hash com custo diferente do calibrado, para cima ou para baixo.
+     *
+     * O BCryptPasswordEncoder só pede re-hash de custo menor — um hash mais forte que o orçamento
+     * (ex.: admin do V1 em $2a$12, hash gravado por um nó mais rápido) ficaria acima da latência alvo para sempre.
+     */
+    static final class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+        private final int strength;
+
+        CalibratedBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword == null) {
+                return false;
+            }
+            Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+            // Hash que nem é BCrypt não é refeito aqui — matches() já o recusa
+            return matcher.matches() && Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+}
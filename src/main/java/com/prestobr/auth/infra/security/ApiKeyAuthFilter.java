@@ -0,0 +1,80 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache.CachedApiKey;
+import com.prestobr.auth.infra.security.SignedApiKeys.SignedApiKey;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/* Filtro que autentica requisições machine-to-machine pelo header "X-API-Key".
+ * Roda ao lado do JwtAuthFilter — se a requisição já foi autenticada por JWT, não faz nada.
+ *
+ * Fluxo (verificação no ApiKeyVerifier):
+ *   1. Lê a chave "pb_<prefixo>_<segredo>" do header
+ *   2. Busca a API Key pelo prefixo no ApiKeyPrincipalCache — só chaves ativas, não expiradas
+ *      e com dono ativo estão lá; o banco nunca é consultado
+ *   3. Confere o HMAC do segredo com o key_hash, em tempo constante
+ *   4. Registra no SecurityContext a Authentication já montada da chave (dono, bitmask e authorities)
+ *
+ * Chaves assinadas ("pbs_...") não passam pelo índice: confere o HMAC, a expiração e a revogação
+ * em memória, e as authorities saem do bitmask de roles da própria chave.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyAuthFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    // Id da chave que passou na verificação — o ApiKeyRateLimitFilter cobra o bucket por ele
+    public static final String VERIFIED_KEY_ID_ATTRIBUTE = ApiKeyAuthFilter.class.getName() + ".keyId";
+
+    private final ApiKeyVerifier apiKeyVerifier;
+    private final RoleCatalog roleCatalog;
+    private final AuthMetrics authMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String rawKey = request.getHeader(API_KEY_HEADER);
+
+        // Sem header ou já autenticado por outro filtro — segue sem fazer nada
+        if (rawKey == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Duração e resultado da autenticação em auth.api-key{type, result}
+        long start = AuthMetrics.start();
+        boolean signed = apiKeyVerifier.isSigned(rawKey);
+        Optional<Authentication> authentication;
+        if (signed) {
+            Optional<SignedApiKey> key = apiKeyVerifier.verifySigned(rawKey);
+            key.ifPresent(k -> request.setAttribute(VERIFIED_KEY_ID_ATTRIBUTE, k.keyId()));
+            authentication = key.map(k -> roleCatalog.authentication(k.username(), k.roleMask()));
+        } else {
+            Optional<CachedApiKey> key = apiKeyVerifier.verify(rawKey);
+            key.ifPresent(k -> request.setAttribute(VERIFIED_KEY_ID_ATTRIBUTE, k.id()));
+            // O principal é o username do dono — os controllers usam @AuthenticationPrincipal String
+            // A Authentication vem pronta do índice, a mesma instância em toda requisição da chave
+            authentication = key.map(CachedApiKey::authentication);
+        }
+        authMetrics.recordApiKey(start, signed, authentication.isPresent());
+
+        authentication.ifPresent(SecurityContextHolder.getContext()::setAuthentication);
+
+        filterChain.doFilter(request, response);
+    }
+
+}
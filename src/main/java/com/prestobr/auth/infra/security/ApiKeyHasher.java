@@ -0,0 +1,103 @@
+package com.prestobr.auth.infra.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Gera e verifica API Keys no formato "pb_<prefixo>_<segredo>".
+ *
+ *   - prefixo: 16 caracteres hex, público, gravado em api_keys.key_prefix (busca por índice)
+ *   - segredo: 32 bytes aleatórios em Base64URL, nunca gravado — só o HMAC-SHA256 dele vai para key_hash
+ *
+ * HMAC em vez de BCrypt: o segredo já tem 256 bits de entropia, então não precisa de hash lento.
+ * A verificação custa microssegundos, o que importa porque toda requisição machine-to-machine passa por aqui.
+ */
+@Component
+public class ApiKeyHasher {
+
+    private static final String KEY_PREFIX = "pb_";
+    private static final int PREFIX_LENGTH = 16;
+    private static final int SECRET_BYTES = 32;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec pepper;
+
+    // Mac não é thread-safe — instâncias já inicializadas, reservadas por requisição
+    private final InstancePool<Mac> macs;
+
+    public ApiKeyHasher(@Value("${api-key.secret:${jwt.secret}}") String secret) {
+        this.pepper = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macs = new InstancePool<>(this::newMac);
+    }
+
+    // Gera uma nova chave; o rawKey só é devolvido ao cliente uma vez
+    public GeneratedApiKey generate() {
+        byte[] prefixBytes = new byte[PREFIX_LENGTH / 2];
+        byte[] secretBytes = new byte[SECRET_BYTES];
+        random.nextBytes(prefixBytes);
+        random.nextBytes(secretBytes);
+
+        String prefix = HexFormat.of().formatHex(prefixBytes);
+        String secret = Base64.getUrlEncoder().withoutPadding().encodeToString(secretBytes);
+
+        return new GeneratedApiKey(KEY_PREFIX + prefix + "_" + secret, prefix, hash(secret));
+    }
+
+    // Separa prefixo e segredo; vazio se a chave não estiver no formato esperado
+    public Optional<ParsedApiKey> parse(String rawKey) {
+        int secretStart = KEY_PREFIX.length() + PREFIX_LENGTH + 1;
+        if (rawKey == null
+                || rawKey.length() <= secretStart
+                || !rawKey.startsWith(KEY_PREFIX)
+                || rawKey.charAt(secretStart - 1) != '_') {
+            return Optional.empty();
+        }
+        return Optional.of(new ParsedApiKey(
+                rawKey.substring(KEY_PREFIX.length(), secretStart - 1),
+                rawKey.substring(secretStart)
+        ));
+    }
+
+    public String hash(String secret) {
+        byte[] data = secret.getBytes(StandardCharsets.US_ASCII);
+        InstancePool.Lease<Mac> mac = macs.acquire();
+        try {
+            return HexFormat.of().formatHex(mac.get().doFinal(data));
+        } finally {
+            mac.release();
+        }
+    }
+
+    // Comparação em tempo constante para não vazar informação por timing
+    public boolean matches(String secret, String keyHash) {
+        return MessageDigest.isEqual(
+                hash(secret).getBytes(StandardCharsets.US_ASCII),
+                keyHash.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(pepper);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize API Key HMAC", e);
+        }
+    }
+
+    public record GeneratedApiKey(String rawKey, String prefix, String keyHash) {}
+
+    public record ParsedApiKey(String prefix, String secret) {}
+}
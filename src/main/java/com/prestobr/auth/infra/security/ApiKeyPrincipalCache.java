@@ -0,0 +1,245 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.infra.datasource.ReplicaRouting;
+import com.prestobr.auth.repository.ApiKeyRepository;
+import com.prestobr.auth.repository.RevokedSignedKeyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória das API Keys ativas e não expiradas, por prefixo.
+ *
+ * O ApiKeyAuthFilter consulta só este índice — nenhuma requisição autenticada por API Key
+ * vai ao Postgres. Por isso o índice precisa estar sempre correto:
+ *   - carregado inteiro na inicialização, antes do servidor aceitar requisições
+ *   - atualizado pelo ApiKeyService a cada create/update/revoke (revogação vale na hora)
+ *   - chaves expiradas são descartadas na consulta e varridas periodicamente
+ *
+ * Chaves assinadas (SignedApiKeys) não entram no índice — a própria chave carrega dono e roles.
+ * Daqui só sai a revogação delas: ids das assinadas revogadas, com dono inativo ou apagadas, num Bloom
+ * filter na frente de um set exato (mesmo esquema do TokenRevocationList), carregados na inicialização.
+ * Apagar a linha também revoga: o MAC continua válido sem ela, então o trigger de V12 copia id e
+ * expires_at para revoked_signed_keys, que sobrevive à linha (inclusive ao apagar o usuário dono).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApiKeyPrincipalCache {
+
+    private static final long EXPECTED_REVOKED_SIGNED_KEYS = 100_000;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final RoleCatalog roleCatalog;
+    private final RevokedSignedKeyRepository revokedSignedKeyRepository;
+
+    private final Map<String, CachedApiKey> byPrefix = new ConcurrentHashMap<>();
+    private final Map<Long, String> prefixById = new ConcurrentHashMap<>();
+
+    // id da chave assinada revogada → expires_at (epoch em segundos, 0 = não expira)
+    private final Map<Long, Long> revokedSignedKeys = new ConcurrentHashMap<>();
+    private volatile RevocationBloomFilter signedRevocationFilter = new RevocationBloomFilter(EXPECTED_REVOKED_SIGNED_KEYS);
+
+    // Carga e recargas sempre no primário — o índice é a fonte da verdade do filtro, não pode nascer atrasado
+    @PostConstruct
+    public void reload() {
+        List<ApiKey> keys = ReplicaRouting.onPrimary(() -> apiKeyRepository.findAllUsable(LocalDateTime.now()));
+
+        // Atualiza sem limpar antes — o filtro nunca vê o índice vazio durante a recarga
+        Set<Long> loadedIds = new HashSet<>();
+        keys.forEach(key -> {
+            put(key);
+            loadedIds.add(key.getId());
+        });
+        prefixById.keySet().stream()
+                .filter(id -> !loadedIds.contains(id))
+                .toList()
+                .forEach(this::remove);
+
+        int revokedSigned = reloadRevokedSignedKeys();
+
+        log.info("Loaded {} active API keys and {} revoked signed API keys into memory", keys.size(), revokedSigned);
+    }
+
+    // Retorna a chave se estiver ativa e não expirada. Nunca consulta o banco
+    public Optional<CachedApiKey> find(String prefix) {
+        CachedApiKey key = byPrefix.get(prefix);
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (key.isExpired(LocalDateTime.now())) {
+            remove(key.id());
+            return Optional.empty();
+        }
+        return Optional.of(key);
+    }
+
+    // Sem alocação no caminho comum: o Bloom filter responde "não revogada" para quase toda chave
+    public boolean isSignedKeyRevoked(long apiKeyId) {
+        return signedRevocationFilter.mightContain(apiKeyId) && revokedSignedKeys.containsKey(apiKeyId);
+    }
+
+    // Inclui ou substitui a chave no índice; chaves inutilizáveis são removidas
+    public void put(ApiKey apiKey) {
+        if (apiKey.isSigned()) {
+            if (!apiKey.isActive() || !apiKey.getUser().isActive()) {
+                revokeSignedKey(apiKey.getId(), epochSecond(apiKey.getExpiresAt()));
+            } else {
+                unrevokeSignedKey(apiKey.getId());
+            }
+            return;
+        }
+
+        if (apiKey.getKeyPrefix() == null
+                || !apiKey.isActive()
+                || !apiKey.getUser().isActive()
+                || CachedApiKey.isExpired(apiKey.getExpiresAt(), LocalDateTime.now())) {
+            remove(apiKey.getId());
+            return;
+        }
+
+        CachedApiKey cached = CachedApiKey.from(apiKey, roleCatalog);
+        String previous = prefixById.put(cached.id(), cached.prefix());
+        if (previous != null && !previous.equals(cached.prefix())) {
+            byPrefix.remove(previous);
+        }
+        byPrefix.put(cached.prefix(), cached);
+    }
+
+    public void remove(Long apiKeyId) {
+        String prefix = prefixById.remove(apiKeyId);
+        if (prefix != null) {
+            byPrefix.remove(prefix);
+        }
+    }
+
+    // Recarrega uma chave do banco — usado quando outro nó altera a chave (ver AuthChangeListener)
+    public void refresh(Long apiKeyId) {
+        // Linha apagada: se era assinada, o trigger de V12 gravou a revogação com o expires_at real dela
+        ReplicaRouting.onPrimary(() -> apiKeyRepository.findWithUserAndRolesById(apiKeyId)).ifPresentOrElse(this::put, () -> {
+            remove(apiKeyId);
+            ReplicaRouting.onPrimary(() -> revokedSignedKeyRepository.findById(apiKeyId))
+                    .ifPresent(key -> revokeSignedKey(key.getApiKeyId(), epochSecond(key.getExpiresAt())));
+        });
+    }
+
+    // Recarrega todas as chaves de um usuário — ex.: usuário desativado em outro nó
+    public void refreshUser(Long userId) {
+        ReplicaRouting.onPrimary(() -> apiKeyRepository.findByUserIdOrderByIdAsc(userId)).forEach(this::put);
+    }
+
+    // Remove periodicamente as chaves cujo expires_at já passou (e as revogações de chaves apagadas já expiradas)
+    @Scheduled(fixedDelayString = "${api-key.cache.sweep-interval-ms:60000}")
+    @Transactional
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        byPrefix.values().stream()
+                .filter(key -> key.isExpired(now))
+                .map(CachedApiKey::id)
+                .toList()
+                .forEach(this::remove);
+
+        // Revogação de chave assinada já expirada não precisa mais ser lembrada — remove só as expiradas,
+        // sob a mesma trava de revokeSignedKey: uma revogação concorrente nunca se perde no rebuild
+        long nowEpochSec = epochSecond(now);
+        synchronized (this) {
+            if (revokedSignedKeys.values().removeIf(exp -> exp != 0 && exp <= nowEpochSec)) {
+                signedRevocationFilter = bloomFilterOf(revokedSignedKeys.keySet());
+            }
+        }
+
+        revokedSignedKeyRepository.deleteExpired(now);
+    }
+
+    private synchronized void revokeSignedKey(long apiKeyId, long expiresAtEpochSec) {
+        revokedSignedKeys.put(apiKeyId, expiresAtEpochSec);
+        signedRevocationFilter.add(apiKeyId);
+    }
+
+    // O id continua no Bloom filter até o próximo rebuild — o set exato decide
+    private synchronized void unrevokeSignedKey(long apiKeyId) {
+        revokedSignedKeys.remove(apiKeyId);
+    }
+
+    /**
+     * Troca o conjunto inteiro pelo do banco: revogadas com linha (inativas ou dono inativo) e apagadas
+     * (revoked_signed_keys). A consulta roda dentro da trava — revokeSignedKey concorrente espera e entra
+     * depois, em vez de ser apagada por um snapshot tirado antes dela.
+     */
+    private synchronized int reloadRevokedSignedKeys() {
+        Map<Long, Long> revoked = new HashMap<>();
+        ReplicaRouting.onPrimary(() -> apiKeyRepository.findRevokedSigned(LocalDateTime.now()))
+                .forEach(key -> revoked.put(key.getId(), epochSecond(key.getExpiresAt())));
+        ReplicaRouting.onPrimary(() -> revokedSignedKeyRepository.findNotExpired(LocalDateTime.now()))
+                .forEach(key -> revoked.put(key.getApiKeyId(), epochSecond(key.getExpiresAt())));
+
+        // Bloom filter recriado (não suporta remoção) e publicado antes de o set perder as entradas antigas
+        revokedSignedKeys.putAll(revoked);
+        signedRevocationFilter = bloomFilterOf(revoked.keySet());
+        revokedSignedKeys.keySet().retainAll(revoked.keySet());
+        return revoked.size();
+    }
+
+    private static RevocationBloomFilter bloomFilterOf(Set<Long> ids) {
+        RevocationBloomFilter filter = new RevocationBloomFilter(EXPECTED_REVOKED_SIGNED_KEYS);
+        ids.forEach(filter::add);
+        return filter;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    /**
+     * Snapshot imutável do que o filtro precisa para autenticar: hash do segredo,
+     * dono e a Authentication já montada (bitmask + authorities).
+     */
+    public record CachedApiKey(
+            Long id,
+            String prefix,
+            String keyHash,
+            String username,
+            RoleMaskAuthentication authentication,
+            LocalDateTime expiresAt) {
+
+        static CachedApiKey from(ApiKey apiKey, RoleCatalog roleCatalog) {
+            // Ex: "FISCAL_READ" → "ROLE_FISCAL_READ" — instâncias compartilhadas do catálogo
+            List<String> roleNames = apiKey.getRoles().stream()
+                    .map(Role::getName)
+                    .toList();
+            String username = apiKey.getUser().getUsername();
+
+            return new CachedApiKey(
+                    apiKey.getId(),
+                    apiKey.getKeyPrefix(),
+                    apiKey.getKeyHash(),
+                    username,
+                    roleCatalog.authentication(username, roleNames),
+                    apiKey.getExpiresAt()
+            );
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return isExpired(expiresAt, now);
+        }
+
+        static boolean isExpired(LocalDateTime expiresAt, LocalDateTime now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+}
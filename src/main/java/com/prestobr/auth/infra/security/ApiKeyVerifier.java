@@ -0,0 +1,47 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.infra.security.ApiKeyHasher.ParsedApiKey;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache.CachedApiKey;
+import com.prestobr.auth.infra.security.SignedApiKeys.SignedApiKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Verificação de uma API Key recebida, só em memória — usada pelo ApiKeyAuthFilter e pela introspecção.
+ *
+ *   - "pb_<prefixo>_<segredo>": busca pelo prefixo no ApiKeyPrincipalCache e confere o HMAC do segredo
+ *   - "pbs_<payload>.<mac>": confere a assinatura, a expiração e a revogação
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyVerifier {
+
+    private final ApiKeyPrincipalCache apiKeyPrincipalCache;
+    private final ApiKeyHasher apiKeyHasher;
+    private final SignedApiKeys signedApiKeys;
+
+    public boolean isSigned(String rawKey) {
+        return signedApiKeys.isSigned(rawKey);
+    }
+
+    // Chave assinada válida, não expirada e não revogada
+    public Optional<SignedApiKey> verifySigned(String rawKey) {
+        long now = Instant.now().getEpochSecond();
+        return signedApiKeys.verify(rawKey)
+                .filter(key -> !key.isExpired(now))
+                .filter(key -> !apiKeyPrincipalCache.isSignedKeyRevoked(key.keyId()));
+    }
+
+    // Chave "pb_" ativa, não expirada, com dono ativo e segredo correto
+    public Optional<CachedApiKey> verify(String rawKey) {
+        Optional<ParsedApiKey> parsed = apiKeyHasher.parse(rawKey);
+        if (parsed.isEmpty()) {
+            return Optional.empty();
+        }
+        return apiKeyPrincipalCache.find(parsed.get().prefix())
+                .filter(key -> apiKeyHasher.matches(parsed.get().secret(), key.keyHash()));
+    }
+}
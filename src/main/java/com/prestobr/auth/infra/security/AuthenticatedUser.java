@@ -0,0 +1,68 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.domain.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+/**
+ * Principal devolvido pelo CustomUserDetailsService no login.
+ *
+ * Carrega tudo que o AuthService precisa para gerar o token (id, ativo, nomes das roles),
+ * então o login não precisa buscar o usuário no banco uma segunda vez.
+ * isEnabled() reflete o campo "active": o Spring Security recusa usuários inativos
+ * antes de comparar a senha, sem gastar BCrypt.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String username;
+    private String password;
+    private final boolean active;
+    private final List<String> roleNames;
+    private final List<GrantedAuthority> authorities;
+
+    private AuthenticatedUser(Long id, String username, String password, boolean active,
+                              List<String> roleNames, List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.active = active;
+        this.roleNames = List.copyOf(roleNames);
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser from(User user, RoleCatalog roleCatalog) {
+        List<String> roleNames = user.getRoles().stream().map(Role::getName).toList();
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.isActive(),
+                roleNames,
+                // Ex: "FISCAL_READ" → "ROLE_FISCAL_READ" — instâncias compartilhadas do catálogo
+                roleCatalog.authorities(roleNames)
+        );
+    }
+
+    // Mesmo principal com outro hash — usado quando a senha é re-hasheada no login
+    public AuthenticatedUser withPassword(String newPassword) {
+        return new AuthenticatedUser(id, username, newPassword, active, roleNames, authorities);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+
+    // Chamado pelo AuthenticationManager depois do login — o hash não fica circulando no principal
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
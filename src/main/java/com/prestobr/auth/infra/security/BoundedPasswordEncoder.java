@@ -0,0 +1,147 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordEncoder que executa o hash (BCrypt) num pool de CPU dedicado e limitado.
+ *
+ * Sem isso, um pico de logins (início de turno, clientes repetindo requisições) ocupa todas
+ * as threads do Tomcat com BCrypt e as requisições baratas, autenticadas por token, ficam na fila.
+ *
+ *   - O pool tem tamanho fixo (padrão: número de CPUs) e uma fila curta
+ *   - Quem chama só espera o resultado — com virtual threads, esperar não prende thread do sistema
+ *   - Pool e fila cheios: falha imediatamente com 429 + Retry-After (PasswordHashingBusyException)
+ *   - Lotes (encodeAll) entram na mesma fila dos logins: no máximo poolSize hashes do lote ficam
+ *     no pool ao mesmo tempo, então um lote ocupa até poolSize das posições (threads + fila) que os
+ *     logins usariam — durante uma importação, um pico de logins recebe 429 mais cedo. O lote em si
+ *     nunca recebe 429: com a fila cheia, calcula o hash na thread de quem chamou
+ *   - O tempo do hash é medido na thread do pool (auth.password) — a espera na fila fica de fora
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final AuthMetrics authMetrics;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long retryAfterSeconds,
+                                  AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.authMetrics = authMetrics;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> timedEncode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> {
+            long start = AuthMetrics.start();
+            try {
+                return delegate.matches(rawPassword, encodedPassword);
+            } finally {
+                authMetrics.recordPasswordMatches(start);
+            }
+        });
+    }
+
+    // Só compara parâmetros do hash — barato, não precisa passar pelo pool
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Gera os hashes de um lote em paralelo (importação em massa), na ordem da lista.
+     *
+     * No máximo poolSize hashes do lote ficam no pool ao mesmo tempo — logins continuam entrando
+     * na fila e esperam no máximo um hash do lote. Se a fila estiver cheia de logins, o lote
+     * calcula o hash na própria thread em vez de falhar.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        Semaphore inFlight = new Semaphore(executor.getCorePoolSize());
+        List<Future<String>> hashes = new ArrayList<>(rawPasswords.size());
+
+        for (CharSequence rawPassword : rawPasswords) {
+            inFlight.acquireUninterruptibly();
+            try {
+                hashes.add(executor.submit(() -> {
+                    try {
+                        return timedEncode(rawPassword);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                hashes.add(CompletableFuture.completedFuture(timedEncode(rawPassword)));
+            }
+        }
+
+        List<String> encoded = new ArrayList<>(hashes.size());
+        for (Future<String> hash : hashes) {
+            encoded.add(await(hash));
+        }
+        return encoded;
+    }
+
+    private String timedEncode(CharSequence rawPassword) {
+        long start = AuthMetrics.start();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            authMetrics.recordPasswordEncode(start);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        }
+        return await(future);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
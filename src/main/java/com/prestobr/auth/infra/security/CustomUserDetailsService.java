@@ -1,15 +1,17 @@
 package com.prestobr.auth.infra.security;
 
+import com.prestobr.auth.infra.datasource.RecentWriters;
+import com.prestobr.auth.infra.datasource.ReplicaRouting;
+import com.prestobr.auth.infra.metrics.AuthMetrics;
 import com.prestobr.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Optional;
 
 /**
  * Implementação do UserDetailsService do Spring Security.
@@ -21,32 +23,55 @@ import java.util.List;
  *   1. Usuário envia username e senha no POST /v1/auth/login
  *   2. O AuthenticationManager chama loadUserByUsername() automaticamente
  *   3. Este metodo busca o usuário no banco e retorna um UserDetails
- *   4. O Spring Security compara a senha enviada com o hash armazenado
- *   5. Se bater, autentica o usuário e o AuthService gera o JWT
+ *   4. O Spring Security recusa usuários inativos (isEnabled) e compara a senha enviada com o hash armazenado
+ *   5. Se bater, autentica o usuário e o AuthService gera o JWT a partir do AuthenticatedUser retornado
+ *
+ * Também implementa UserDetailsPasswordService: quando o hash gravado não está no algoritmo/custo
+ * atual (ver AdaptivePasswordEncoders), o Spring Security gera um novo hash com a senha que acabou
+ * de ser validada e chama updatePassword() para gravá-lo — uma vez por usuário.
  *
  * Sem essa classe, o Spring Security não saberia como buscar usuários no banco.
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+    private final AuthMetrics authMetrics;
+    private final RecentWriters recentWriters;
 
     // Busca o usuário no banco pelo username e retorna um objeto UserDetails que o Spring Security usa para validar a autenticação.
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        com.prestobr.auth.domain.entity.User user = userRepository.findByUsernameOrderById(username)
+        // Latência da query medida à parte (auth.user.lookup) — separa Postgres do BCrypt no login
+        // Usuário alterado há pouco fica no primário: uma réplica atrasada devolveria roles ou status antigos
+        long start = AuthMetrics.start();
+        Optional<com.prestobr.auth.domain.entity.User> found = recentWriters.contains(username)
+                ? ReplicaRouting.onPrimary(() -> userRepository.findWithRolesByUsername(username))
+                : userRepository.findWithRolesByUsername(username);
+        authMetrics.recordUserLookup(start, found.isPresent());
+
+        com.prestobr.auth.domain.entity.User user = found
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        // Converte as roles da entidade para o formato do Spring Security
-        // Ex: Role{name="FISCAL_READ"} → SimpleGrantedAuthority("ROLE_FISCAL_READ")
-        List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .toList();
+        // Retorna o UserDetails que o Spring Security vai usar para validar a senha.
+        // Além das authorities, carrega id, flag de ativo e nomes das roles para o AuthService
+        return AuthenticatedUser.from(user, roleCatalog);
+    }
+
+    // Grava o novo hash gerado no login (re-hash para o algoritmo/custo atual)
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AuthenticatedUser authenticated = (AuthenticatedUser) user;
+
+        ReplicaRouting.onPrimary(() -> userRepository.findById(authenticated.getId())).ifPresent(entity -> {
+            entity.setPassword(newPassword);
+            userRepository.save(entity);
+            recentWriters.record(entity.getUsername());
+        });
 
-        // Retorna o UserDetails que o Spring Security vai usar para validar a senha
-        // User aqui é o org.springframework.security.core.userdetails.User, não a nossa entidade
-        return new User(user.getUsername(), user.getPassword(), authorities);
+        return authenticated.withPassword(newPassword);
     }
 }
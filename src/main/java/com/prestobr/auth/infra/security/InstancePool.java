@@ -0,0 +1,62 @@
+package com.prestobr.auth.infra.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Conjunto fixo de instâncias não thread-safe (Mac, MessageDigest) já inicializadas, reservadas por CAS —
+ * mesmo esquema de slots do JwtMinter. Com virtual threads cada requisição é uma thread nova, então um
+ * ThreadLocal recriaria a instância (getInstance + init + busca de provider) a cada requisição.
+ *
+ * Com todos os slots ocupados, acquire devolve uma instância temporária, fora do conjunto.
+ */
+final class InstancePool<T> {
+
+    private final Supplier<T> factory;
+    private final Lease<T>[] slots;
+
+    @SuppressWarnings("unchecked")
+    InstancePool(Supplier<T> factory) {
+        this.factory = factory;
+        this.slots = new Lease[Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2) * 2];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Lease<>(factory.get(), true);
+        }
+    }
+
+    // Sempre com try/finally { lease.release() }
+    Lease<T> acquire() {
+        int mask = slots.length - 1;
+        int start = ThreadLocalRandom.current().nextInt();
+        for (int i = 0; i < slots.length; i++) {
+            Lease<T> slot = slots[(start + i) & mask];
+            if (slot.busy.compareAndSet(false, true)) {
+                return slot;
+            }
+        }
+        return new Lease<>(factory.get(), false);
+    }
+
+    static final class Lease<T> {
+
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final T instance;
+        private final boolean pooled;
+
+        private Lease(T instance, boolean pooled) {
+            this.instance = instance;
+            this.pooled = pooled;
+        }
+
+        T get() {
+            return instance;
+        }
+
+        void release() {
+            if (pooled) {
+                busy.set(false);
+            }
+        }
+    }
+}
@@ -1,18 +1,17 @@
 package com.prestobr.auth.infra.security;
 
+import com.prestobr.auth.infra.security.VerifiedTokenCache.CachedPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Optional;
 
 /* Filtro que intercepta todas as requisições HTTP e verifica se há um token JWT válido.
  * Estende OncePerRequestFilter — garante que o filtro executa exatamente uma vez por requisição, mesmo em redirecionamentos internos.
@@ -27,7 +26,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -46,29 +46,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Remove o prefixo "Bearer " para pegar só o token
         String token = authHeader.substring(7);
 
+        // Busca o principal no cache de tokens verificados; só na primeira vez o token
+        // passa pela verificação de assinatura e pelo parse do payload.
         // Se o token for inválido (expirado, assinatura errada, etc.), continua sem autenticar
-        if (!jwtService.isValid(token)) {
+        Optional<CachedPrincipal> resolved = verifiedTokenCache.resolve(token);
+        if (resolved.isEmpty()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // Extrai o username e as roles do payload do token
-        String username = jwtService.extractUsername(token);
-        List<String> roles = jwtService.extractRoles(token);
+        CachedPrincipal principal = resolved.get();
 
-        // Converte as roles para o formato que o Spring Security entende
-        // O Spring exige o prefixo "ROLE_" para funcionar com hasRole()
-        // Ex: "FISCAL_READ" → "ROLE_FISCAL_READ"
-        List<SimpleGrantedAuthority> authorities = roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                .toList();
+        // Token revogado antes do "exp" (logout, roles alteradas) — checado também nos acertos do cache
+        if (tokenRevocationList.isRevoked(principal.jti(), principal.subject(), principal.issuedAtEpochSec())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-        // Cria o objeto de autenticação e registra no SecurityContext
+        // Registra no SecurityContext a Authentication do cache — imutável, com o bitmask de roles
+        // e as authorities ("ROLE_" + role) já montados; nada é alocado por requisição
         // A partir daqui, o Spring sabe quem está fazendo a requisição
-        UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(username, null, authorities);
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        SecurityContextHolder.getContext().setAuthentication(principal.authentication());
 
         // Deixa a requisição continuar para o próximo filtro ou controller
         filterChain.doFilter(request, response);
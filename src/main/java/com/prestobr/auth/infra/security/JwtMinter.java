@@ -0,0 +1,390 @@
+package com.prestobr.auth.infra.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+/**
+ * Emissão de JWT sem o Jwts.builder() — mesmos bytes que o JJWT gera para as claims do JwtService
+ * (ver JwtMinterTests), com uma fração das alocações:
+ *
+ *   - Header já codificado em Base64URL na construção ({"alg":"HS256"} ou {"kid":"...","alg":"ES256"})
+ *   - Payload {"sub","roles","rb","iat","exp","jti"} escrito direto em bytes, na ordem do JJWT
+ *   - Base64URL, assinatura e token montados em buffers reaproveitados
+ *   - Mac/Signature já inicializados, sem busca de provider a cada token
+ *
+ * Os buffers e o Mac/Signature ficam num conjunto de slots reservados por CAS, não em ThreadLocal —
+ * com virtual threads cada requisição é uma thread nova e um ThreadLocal seria recriado a cada token.
+ *
+ * Texto fora do ASCII (username ou role) retorna null: quem chama usa o JJWT, que sabe escapar.
+ */
+final class JwtMinter {
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] SUB = ascii("{\"sub\":\"");
+    private static final byte[] ROLES = ascii("\",\"roles\":[");
+    private static final byte[] RB = ascii("],\"rb\":");
+    private static final byte[] IAT = ascii(",\"iat\":");
+    private static final byte[] EXP = ascii(",\"exp\":");
+    private static final byte[] JTI = ascii(",\"jti\":\"");
+    private static final byte[] END = ascii("\"}");
+
+    private final byte[] encodedHeader; // Base64URL(header) + "."
+    private final SignerFactory signerFactory;
+    private final Slot[] slots;
+
+    private JwtMinter(String headerJson, SignerFactory signerFactory) {
+        byte[] header = headerJson.getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = new byte[base64Length(header.length) + 1];
+        int length = base64(header, 0, header.length, encoded, 0);
+        encoded[length] = '.';
+        this.encodedHeader = encoded;
+        this.signerFactory = signerFactory;
+
+        this.slots = new Slot[Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2) * 2];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(signerFactory.create(), true);
+        }
+    }
+
+    // HMAC com a chave do jwt.secret — HS256/384/512 conforme o tamanho da chave, como no Keys.hmacShaKeyFor
+    static JwtMinter hmac(SecretKey key) {
+        String alg = switch (key.getAlgorithm()) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> throw new IllegalArgumentException("Unsupported HMAC key algorithm: " + key.getAlgorithm());
+        };
+        return new JwtMinter("{\"alg\":\"" + alg + "\"}", () -> new MacSigner(key));
+    }
+
+    /**
+     * Chave assimétrica do SigningKeys. ES256 usa a assinatura já no formato JOSE (R||S, P1363);
+     * EdDSA, Ed25519. Null para outro algoritmo — quem chama usa o JJWT.
+     */
+    static JwtMinter asymmetric(String kid, PrivateKey privateKey, String alg) {
+        String jcaAlgorithm = switch (alg) {
+            case "ES256" -> "SHA256withECDSAinP1363Format";
+            case "EdDSA" -> "Ed25519";
+            default -> null;
+        };
+        if (jcaAlgorithm == null || !isPlainAscii(kid)) {
+            return null;
+        }
+        return new JwtMinter("{\"kid\":\"" + kid + "\",\"alg\":\"" + alg + "\"}",
+                () -> new SignatureSigner(jcaAlgorithm, privateKey));
+    }
+
+    /**
+     * Monta e assina o token. iat/exp em epoch seconds.
+     * Null se username ou alguma role tiver caractere fora do ASCII.
+     */
+    String mint(String subject, List<String> roles, long roleMask, long issuedAt, long expiresAt, String jti) {
+        if (!isAscii(subject) || !isAscii(jti)) {
+            return null;
+        }
+        for (int i = 0; i < roles.size(); i++) {
+            if (!isAscii(roles.get(i))) {
+                return null;
+            }
+        }
+
+        Slot slot = acquire();
+        try {
+            return slot.mint(encodedHeader, subject, roles, roleMask, issuedAt, expiresAt, jti);
+        } finally {
+            slot.release();
+        }
+    }
+
+    // Um slot livre qualquer; com todos ocupados, um temporário (fora do conjunto)
+    private Slot acquire() {
+        int mask = slots.length - 1;
+        int start = ThreadLocalRandom.current().nextInt();
+        for (int i = 0; i < slots.length; i++) {
+            Slot slot = slots[(start + i) & mask];
+            if (slot.busy.compareAndSet(false, true)) {
+                return slot;
+            }
+        }
+        return new Slot(signerFactory.create(), false);
+    }
+
+    private static final class Slot {
+
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final Signer signer;
+        private final boolean pooled;
+        private byte[] json = new byte[256];
+        private byte[] token = new byte[512];
+
+        Slot(Signer signer, boolean pooled) {
+            this.signer = signer;
+            this.pooled = pooled;
+        }
+
+        String mint(byte[] header, String subject, List<String> roles, long roleMask, long issuedAt, long expiresAt, String jti) {
+            // Payload JSON, mesma ordem e formato do JJWT + Jackson
+            int length = 0;
+            length = put(SUB, length);
+            length = putString(subject, length);
+            length = put(ROLES, length);
+            for (int i = 0; i < roles.size(); i++) {
+                if (i > 0) {
+                    length = put((byte) ',', length);
+                }
+                length = put((byte) '"', length);
+                length = putString(roles.get(i), length);
+                length = put((byte) '"', length);
+            }
+            length = put(RB, length);
+            length = putLong(roleMask, length);
+            length = put(IAT, length);
+            length = putLong(issuedAt, length);
+            length = put(EXP, length);
+            length = putLong(expiresAt, length);
+            length = put(JTI, length);
+            length = putString(jti, length);
+            length = put(END, length);
+
+            // header.payload.assinatura — tudo em Base64URL no mesmo buffer
+            int signingInputLength = header.length + base64Length(length);
+            ensureToken(signingInputLength + 1 + base64Length(signer.length()));
+            System.arraycopy(header, 0, token, 0, header.length);
+            base64(json, 0, length, token, header.length);
+
+            byte[] signature = signer.sign(token, signingInputLength);
+            token[signingInputLength] = '.';
+            int tokenLength = signingInputLength + 1;
+            tokenLength += base64(signature, 0, signer.length(), token, tokenLength);
+
+            // Só ASCII — String compacta (LATIN1), uma única cópia
+            return new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+        }
+
+        void release() {
+            if (pooled) {
+                busy.set(false);
+            }
+        }
+
+        private int put(byte[] bytes, int at) {
+            ensureJson(at + bytes.length);
+            System.arraycopy(bytes, 0, json, at, bytes.length);
+            return at + bytes.length;
+        }
+
+        private int put(byte b, int at) {
+            ensureJson(at + 1);
+            json[at] = b;
+            return at + 1;
+        }
+
+        // Escapes do Jackson para ASCII: \" \\ \b \t \n \f \r e \\u00XX para os demais controles
+        private int putString(String value, int at) {
+            ensureJson(at + value.length() * 6);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    json[at++] = (byte) c;
+                    continue;
+                }
+                json[at++] = '\\';
+                switch (c) {
+                    case '"', '\\' -> json[at++] = (byte) c;
+                    case '\b' -> json[at++] = 'b';
+                    case '\t' -> json[at++] = 't';
+                    case '\n' -> json[at++] = 'n';
+                    case '\f' -> json[at++] = 'f';
+                    case '\r' -> json[at++] = 'r';
+                    default -> {
+                        json[at++] = 'u';
+                        json[at++] = '0';
+                        json[at++] = '0';
+                        json[at++] = HEX[c >> 4];
+                        json[at++] = HEX[c & 0xF];
+                    }
+                }
+            }
+            return at;
+        }
+
+        private int putLong(long value, int at) {
+            ensureJson(at + 20);
+            if (value == 0) {
+                json[at] = '0';
+                return at + 1;
+            }
+            if (value < 0) {
+                // Só o rb com o bit 63 ligado — não acontece com ids de 1..63, mas o formato tem que bater
+                byte[] digits = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+                return put(digits, at);
+            }
+            int digits = 0;
+            for (long v = value; v > 0; v /= 10) {
+                digits++;
+            }
+            for (int i = at + digits - 1; i >= at; i--) {
+                json[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            return at + digits;
+        }
+
+        private void ensureJson(int capacity) {
+            if (capacity > json.length) {
+                json = Arrays.copyOf(json, Math.max(capacity, json.length * 2));
+            }
+        }
+
+        private void ensureToken(int capacity) {
+            if (capacity > token.length) {
+                token = new byte[Math.max(capacity, token.length * 2)];
+            }
+        }
+    }
+
+    private interface SignerFactory {
+        Signer create();
+    }
+
+    private interface Signer {
+
+        // Assinatura de data[0..length) — o array retornado é reaproveitado pelo próprio Signer
+        byte[] sign(byte[] data, int length);
+
+        int length();
+    }
+
+    private static final class MacSigner implements Signer {
+
+        private final Mac mac;
+        private final byte[] output;
+
+        MacSigner(Key key) {
+            try {
+                this.mac = Mac.getInstance(key.getAlgorithm());
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialize JWT HMAC", e);
+            }
+            this.output = new byte[mac.getMacLength()];
+        }
+
+        @Override
+        public byte[] sign(byte[] data, int length) {
+            try {
+                mac.update(data, 0, length);
+                mac.doFinal(output, 0);
+                return output;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to sign JWT", e);
+            }
+        }
+
+        @Override
+        public int length() {
+            return output.length;
+        }
+    }
+
+    private static final class SignatureSigner implements Signer {
+
+        // ES256 (R||S de 32 bytes cada) e Ed25519 — ambos com 64 bytes
+        private static final int SIGNATURE_BYTES = 64;
+
+        private final Signature signature;
+        private final byte[] output = new byte[SIGNATURE_BYTES];
+
+        SignatureSigner(String algorithm, PrivateKey privateKey) {
+            try {
+                this.signature = Signature.getInstance(algorithm);
+                this.signature.initSign(privateKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialize JWT signature " + algorithm, e);
+            }
+        }
+
+        @Override
+        public byte[] sign(byte[] data, int length) {
+            try {
+                signature.update(data, 0, length);
+                if (signature.sign(output, 0, SIGNATURE_BYTES) != SIGNATURE_BYTES) {
+                    throw new IllegalStateException("Unexpected JWT signature length");
+                }
+                return output;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to sign JWT", e);
+            }
+        }
+
+        @Override
+        public int length() {
+            return SIGNATURE_BYTES;
+        }
+    }
+
+    private static int base64Length(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    // Base64URL sem padding de src[offset..offset+length) em dst a partir de at; retorna quantos bytes escreveu
+    private static int base64(byte[] src, int offset, int length, byte[] dst, int at) {
+        int start = at;
+        int end = offset + length - length % 3;
+        for (int i = offset; i < end; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[at++] = BASE64URL[bits >>> 18];
+            dst[at++] = BASE64URL[(bits >>> 12) & 0x3F];
+            dst[at++] = BASE64URL[(bits >>> 6) & 0x3F];
+            dst[at++] = BASE64URL[bits & 0x3F];
+        }
+        int remaining = length % 3;
+        if (remaining == 1) {
+            int bits = (src[end] & 0xFF) << 16;
+            dst[at++] = BASE64URL[bits >>> 18];
+            dst[at++] = BASE64URL[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (src[end] & 0xFF) << 16 | (src[end + 1] & 0xFF) << 8;
+            dst[at++] = BASE64URL[bits >>> 18];
+            dst[at++] = BASE64URL[(bits >>> 12) & 0x3F];
+            dst[at++] = BASE64URL[(bits >>> 6) & 0x3F];
+        }
+        return at - start;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // kid vai no header sem escape
+    private static boolean isPlainAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x80 || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
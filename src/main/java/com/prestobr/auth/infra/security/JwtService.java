@@ -1,70 +1,180 @@
 package com.prestobr.auth.infra.security;
 
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.infra.security.SigningKeys.SigningKey;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
-// Serviço responsável por gerar e validar tokens JWT.
+/**
+ * Serviço responsável por gerar e validar tokens JWT.
+ *
+ * Com chaves assimétricas configuradas (ver SigningKeys), assina com ES256/EdDSA e "kid" no header —
+ * outros serviços validam localmente com o JWKS publicado. Sem elas, assina com HMAC (jwt.secret).
+ * Tokens HMAC sem "kid" continuam aceitos enquanto jwt.signing.accept-hmac=true (período de transição).
+ */
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final SigningKeys signingKeys;
+    private final RoleCatalog roleCatalog;
+    private final AuthMetrics authMetrics;
+
     @Value("${jwt.secret}")
     private String secret;
 
-    @Value("${jwt.expiration-ms}") // 24h em milisegundos
-    private long expirationMs;
+    // Access token de vida curta — o cliente renova pelo refresh token (RefreshTokenService) sem refazer login
+    @Value("${jwt.access-expiration-ms:900000}") // 15 min em milisegundos
+    private long accessExpirationMs;
+
+    @Value("${jwt.signing.accept-hmac:true}")
+    private boolean acceptHmac;
+
+    // Chave HMAC e parser são imutáveis e thread-safe — criados uma única vez na inicialização
+    private SecretKey key;
+    private JwtParser parser;
 
-    // Converte a chave secreta (String) em um objeto SecretKey que a biblioteca JJWT entende.
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Emissão sem o Jwts.builder() para a chave ativa; null = só JJWT (algoritmo sem suporte no JwtMinter)
+    private JwtMinter minter;
+
+    @PostConstruct
+    void init() {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .keyLocator(new VerificationKeyLocator())
+                .build();
+
+        SigningKey signingKey = signingKeys.activeKey();
+        this.minter = signingKey == null
+                ? JwtMinter.hmac(key)
+                : JwtMinter.asymmetric(signingKey.kid(), signingKey.privateKey(), signingKey.algorithm().getId());
     }
 
-    // Gera um token JWT contendo o username e as roles do usuário
+    // Gera um token JWT contendo o username, as roles do usuário (nomes e bitmask "rb") e um "jti" único (permite revogar o token)
     public String generateToken(
             String username,
             List<String> roles
     ) {
-        return Jwts.builder()
+        long start = AuthMetrics.start();
+        long now = System.currentTimeMillis();
+        long issuedAt = now / 1000;
+        long expiresAt = (now + accessExpirationMs) / 1000;
+        long roleMask = roleCatalog.maskOfNames(roles);
+        String jti = UUID.randomUUID().toString();
+
+        // Mesmos bytes que o JJWT geraria; texto fora do ASCII ou algoritmo sem suporte vão pelo JJWT
+        String token = minter == null ? null : minter.mint(username, roles, roleMask, issuedAt, expiresAt, jti);
+        if (token == null) {
+            token = buildWithJjwt(username, roles, roleMask, issuedAt, expiresAt, jti);
+        }
+
+        authMetrics.recordTokenIssue(start);
+        return token;
+    }
+
+    // Caminho original pelo Jwts.builder() — mesmas claims, na mesma ordem
+    String buildWithJjwt(String username, List<String> roles, long roleMask, long issuedAt, long expiresAt, String jti) {
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
                 .claim("roles", roles)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getKey())
+                .claim("rb", roleMask)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiresAt * 1000))
+                .id(jti);
+
+        SigningKey signingKey = signingKeys.activeKey();
+        if (signingKey == null) {
+            return builder.signWith(key).compact();
+        }
+        return builder
+                .header().keyId(signingKey.kid()).and()
+                .signWith(signingKey.privateKey(), signingKey.algorithm())
                 .compact();
     }
 
-
-    public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+    public long getAccessExpirationMs() {
+        return accessExpirationMs;
     }
 
-    @SuppressWarnings("unchecked")
-    public List<String> extractRoles(String token) {
-        return (List<String>) getClaims(token).get("roles");
+    /**
+     * Faz o parse e a verificação do token uma única vez.
+     * Retorna vazio se o token for inválido (expirado, assinatura errada, malformado etc.).
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        long start = AuthMetrics.start();
+        Optional<VerifiedToken> verified = parseAndVerify(token);
+        authMetrics.recordTokenVerify(start, verified.isPresent());
+        return verified;
     }
 
-    public boolean isValid(String token) {
+    private Optional<VerifiedToken> parseAndVerify(String token) {
         try {
-            getClaims(token); // lança exceção se inválido
-            return true;
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            // Todo token emitido aqui tem "iat" e "exp" — um token sem eles não é nosso
+            if (claims.getExpiration() == null || claims.getIssuedAt() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(
+                    claims.getSubject(),
+                    extractRoles(claims),
+                    extractRoleMask(claims),
+                    claims.getId(),
+                    claims.getIssuedAt().toInstant(),
+                    claims.getExpiration().toInstant()
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
-    //Faz o parse do token e retorna o payload (claims). Verifica a assinatura automaticamente — lança exceção se inválido
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    @SuppressWarnings("unchecked")
+    private List<String> extractRoles(Claims claims) {
+        return (List<String>) claims.get("roles");
+    }
+
+    // Tokens emitidos antes do "rb" não têm o bitmask — quem consome recalcula pelos nomes
+    private Long extractRoleMask(Claims claims) {
+        return claims.get("rb") instanceof Number mask ? mask.longValue() : null;
+    }
+
+    // Escolhe a chave de verificação pelo "kid" do header; sem "kid" é um token HMAC
+    private class VerificationKeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (!acceptHmac) {
+                    throw new UnsupportedJwtException("HMAC-signed tokens are no longer accepted");
+                }
+                return key;
+            }
+
+            PublicKey publicKey = signingKeys.publicKey(kid);
+            if (publicKey == null) {
+                throw new UnsupportedJwtException("Unknown signing key: " + kid);
+            }
+            return publicKey;
+        }
     }
 }
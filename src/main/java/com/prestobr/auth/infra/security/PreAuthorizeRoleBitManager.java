@@ -0,0 +1,89 @@
+package com.prestobr.auth.infra.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Avalia @PreAuthorize sem SpEL nos casos simples — hasRole('X') e hasAnyRole('X', 'Y') viram
+ * um RoleBitAuthorizationManager (teste de bits), resolvido uma vez por método.
+ *
+ * Qualquer outra expressão continua com o PreAuthorizeAuthorizationManager padrão do Spring.
+ * Registrado no lugar do @PreAuthorize padrão (ver SecurityConfig.preAuthorizeAdvisor).
+ */
+public final class PreAuthorizeRoleBitManager implements AuthorizationManager<MethodInvocation> {
+
+    // hasRole('ADMIN') | hasAnyRole('ADMIN', 'FISCAL_READ')
+    private static final Pattern ROLE_EXPRESSION =
+            Pattern.compile("^\\s*has(Any)?Role\\(\\s*('[A-Za-z0-9_]+'(?:\\s*,\\s*'[A-Za-z0-9_]+')*)\\s*\\)\\s*$");
+
+    private final Supplier<RoleCatalog> roleCatalog;
+    private final PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+    private final Map<Method, AuthorizationManager<MethodInvocation>> byMethod = new ConcurrentHashMap<>();
+
+    public PreAuthorizeRoleBitManager(Supplier<RoleCatalog> roleCatalog) {
+        this.roleCatalog = roleCatalog;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return managerFor(invocation).authorize(authentication, invocation);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        AuthorizationResult result = authorize(authentication, invocation);
+        return result == null ? null : new AuthorizationDecision(result.isGranted());
+    }
+
+    private AuthorizationManager<MethodInvocation> managerFor(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        AuthorizationManager<MethodInvocation> manager = byMethod.get(method);
+        if (manager == null) {
+            manager = byMethod.computeIfAbsent(method, m -> resolve(m, invocation.getThis()));
+        }
+        return manager;
+    }
+
+    private AuthorizationManager<MethodInvocation> resolve(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(specific, PreAuthorize.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuthorize.class);
+        }
+        if (annotation == null) {
+            return spel;
+        }
+
+        Matcher matcher = ROLE_EXPRESSION.matcher(annotation.value());
+        if (!matcher.matches()) {
+            return spel;
+        }
+
+        String[] roles = Arrays.stream(matcher.group(2).split(","))
+                .map(role -> role.trim().replace("'", ""))
+                .toArray(String[]::new);
+        // hasRole com mais de um argumento não existe — deixa o SpEL recusar a expressão
+        if (matcher.group(1) == null && roles.length != 1) {
+            return spel;
+        }
+        return RoleBitAuthorizationManager.hasAnyRole(roleCatalog, roles);
+    }
+}
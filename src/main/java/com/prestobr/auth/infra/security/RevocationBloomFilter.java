@@ -0,0 +1,94 @@
+package com.prestobr.auth.infra.security;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter de tamanho fixo para "jti" (UUID) e ids de API Keys assinadas revogados.
+ *
+ * Responde "com certeza não revogado" sem tocar no set exato — que é o caso de quase toda
+ * requisição. Só um positivo (real ou falso, ~1% na capacidade nominal) consulta o set.
+ *
+ *   - Leitura sem lock e sem alocação: k testes de bit num AtomicLongArray
+ *   - Escrita com CAS, segura para várias threads
+ *   - Memória fixa: ~9,6 bits por entrada esperada (1 milhão de entradas ≈ 1,2 MB)
+ *   - Não remove entradas — o TokenRevocationList recria o filtro quando poda as expiradas
+ */
+class RevocationBloomFilter {
+
+    private static final int HASH_FUNCTIONS = 7;
+    private static final double BITS_PER_ENTRY = 9.6; // ≈ 1% de falso positivo com 7 funções
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+
+    RevocationBloomFilter(long expectedEntries) {
+        long bits = Math.max(64, (long) (Math.max(1, expectedEntries) * BITS_PER_ENTRY));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+    }
+
+    void add(UUID jti) {
+        add(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+    }
+
+    boolean mightContain(UUID jti) {
+        return mightContain(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+    }
+
+    void add(long id) {
+        add(id, 0);
+    }
+
+    boolean mightContain(long id) {
+        return mightContain(id, 0);
+    }
+
+    private void add(long high, long low) {
+        long h1 = mix(high);
+        long h2 = mix(low ^ h1);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            setBit(index(h1, h2, i));
+        }
+    }
+
+    private boolean mightContain(long high, long low) {
+        long h1 = mix(high);
+        long h2 = mix(low ^ h1);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Double hashing (Kirsch–Mitzenmacher): k índices a partir de dois hashes
+    private long index(long h1, long h2, int i) {
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    private void setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current | mask));
+    }
+
+    // Finalizador do MurmurHash3 (fmix64)
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,84 @@
+package com.prestobr.auth.infra.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.function.Supplier;
+
+/**
+ * hasRole/hasAnyRole por teste de bits: (roleMask do principal & bit da role) != 0.
+ *
+ * Usado nas regras de URL (SecurityConfig) e no @PreAuthorize (PreAuthorizeRoleBitManager).
+ * Não aloca: as decisões são constantes e o bit de cada role vem do snapshot do RoleCatalog.
+ * Principal que não é RoleMaskAuthentication (ou role que não cabe no bitmask) cai na comparação
+ * das authorities por string, como o hasRole padrão.
+ */
+public final class RoleBitAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Supplier<RoleCatalog> roleCatalog;
+    private final String[] roles;
+    private final String[] authorities;
+
+    private RoleBitAuthorizationManager(Supplier<RoleCatalog> roleCatalog, String... roles) {
+        this.roleCatalog = roleCatalog;
+        this.roles = roles.clone();
+        this.authorities = new String[roles.length];
+        for (int i = 0; i < roles.length; i++) {
+            this.authorities[i] = "ROLE_" + roles[i];
+        }
+    }
+
+    public static <T> RoleBitAuthorizationManager<T> hasAnyRole(Supplier<RoleCatalog> roleCatalog, String... roles) {
+        return new RoleBitAuthorizationManager<>(roleCatalog, roles);
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, T object) {
+        return check(authentication, object);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated()) {
+            return DENIED;
+        }
+        return isGranted(current) ? GRANTED : DENIED;
+    }
+
+    private boolean isGranted(Authentication authentication) {
+        if (authentication instanceof RoleMaskAuthentication roleMask) {
+            RoleCatalog catalog = roleCatalog.get();
+            for (int i = 0; i < roles.length; i++) {
+                long bit = catalog.bit(roles[i]);
+                if (bit != 0 ? (roleMask.getRoleMask() & bit) != 0 : hasAuthority(authentication, authorities[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (String authority : authorities) {
+            if (hasAuthority(authentication, authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
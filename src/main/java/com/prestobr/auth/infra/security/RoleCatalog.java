@@ -0,0 +1,208 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.dto.response.RoleResponse;
+import com.prestobr.auth.infra.datasource.ReplicaRouting;
+import com.prestobr.auth.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo de roles em memória — a tabela roles é pequena e quase estática (seed do V1).
+ *
+ *   - Snapshot imutável trocado inteiro na recarga: leitura sem lock
+ *   - Resolve um conjunto de nomes de uma vez, sem uma query por role
+ *   - Uma única instância de SimpleGrantedAuthority ("ROLE_" + nome) por role, compartilhada
+ *     por tokens, API Keys e login
+ *   - Recarregado quando a tabela muda (NOTIFY "role", ver V6__role_change_notify.sql)
+ *   - Bitmask de roles (bit = id da role, ids 1..63) para credenciais compactas (API Keys assinadas,
+ *     claim "rb" do JWT) e para a autorização por teste de bits (RoleBitAuthorizationManager)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleCatalog {
+
+    private static final long MAX_MASK_ROLE_ID = 63;
+
+    private final RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // No primário — a recarga vem de uma mudança que acabou de ser gravada (NOTIFY ou role desconhecida)
+    @PostConstruct
+    public void reload() {
+        snapshot = Snapshot.of(ReplicaRouting.onPrimary(() -> roleRepository.findAll()));
+        log.info("Loaded {} roles into memory", snapshot.byName().size());
+    }
+
+    /**
+     * Converte nomes em roles. Nome desconhecido → 400, como antes.
+     * Um nome que não está no snapshot força uma recarga antes de recusar —
+     * a role pode ter sido criada agora e o NOTIFY ainda não ter chegado.
+     */
+    public Set<Role> resolve(Collection<String> names) {
+        Snapshot current = snapshot;
+        if (!current.containsAll(names)) {
+            reload();
+            current = snapshot;
+        }
+
+        Set<Role> roles = new HashSet<>();
+        for (String name : names) {
+            RoleEntry entry = current.byName().get(name);
+            if (entry == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role not found: " + name);
+            }
+            // Instância nova a cada chamada — entidades não são compartilhadas entre sessões
+            roles.add(Role.builder().id(entry.id()).name(entry.name()).build());
+        }
+        return roles;
+    }
+
+    // Nomes que não existem no catálogo (após no máximo uma recarga) — validação de lotes sem exceção
+    public Set<String> unknown(Collection<String> names) {
+        if (!snapshot.containsAll(names)) {
+            reload();
+        }
+        Snapshot current = snapshot;
+        return names.stream()
+                .filter(name -> !current.byName().containsKey(name))
+                .collect(Collectors.toSet());
+    }
+
+    // Authority compartilhada da role. Ex: "FISCAL_READ" → "ROLE_FISCAL_READ"
+    public GrantedAuthority authority(String roleName) {
+        RoleEntry entry = snapshot.byName().get(roleName);
+        // Role fora do catálogo (ex.: removida depois que o token foi emitido) — não entra no intern
+        return entry != null ? entry.authority() : new SimpleGrantedAuthority("ROLE_" + roleName);
+    }
+
+    public List<GrantedAuthority> authorities(Collection<String> roleNames) {
+        return roleNames.stream()
+                .map(this::authority)
+                .toList();
+    }
+
+    /**
+     * Bitmask das roles — o bit de cada role é o próprio id.
+     * IllegalArgumentException se alguma role tiver id fora de 1..63 (não cabe num long).
+     */
+    public long mask(Collection<Role> roles) {
+        long mask = 0;
+        for (Role role : roles) {
+            long id = role.getId();
+            if (id < 1 || id > MAX_MASK_ROLE_ID) {
+                throw new IllegalArgumentException("Role " + role.getName() + " cannot be encoded in a role bitmask");
+            }
+            mask |= 1L << id;
+        }
+        return mask;
+    }
+
+    // Bit da role no bitmask; 0 se a role não existe ou não cabe num long (id > 63)
+    public long bit(String roleName) {
+        RoleEntry entry = snapshot.byName().get(roleName);
+        return entry != null ? entry.bit() : 0;
+    }
+
+    // Bitmask a partir dos nomes — tolerante: roles desconhecidas ou fora de 1..63 ficam de fora
+    public long maskOfNames(Collection<String> roleNames) {
+        Snapshot current = snapshot;
+        long mask = 0;
+        for (String name : roleNames) {
+            RoleEntry entry = current.byName().get(name);
+            if (entry != null) {
+                mask |= entry.bit();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Authentication pronta para o SecurityContext, com bitmask e authorities das roles.
+     * Montada uma vez por token/API Key e reaproveitada nas requisições seguintes.
+     */
+    public RoleMaskAuthentication authentication(String username, Collection<String> roleNames) {
+        return new RoleMaskAuthentication(username, maskOfNames(roleNames), authorities(roleNames));
+    }
+
+    public RoleMaskAuthentication authentication(String username, long mask) {
+        return new RoleMaskAuthentication(username, mask, authorities(mask));
+    }
+
+    // Authorities de um bitmask — montadas uma vez por bitmask distinto e reaproveitadas
+    public List<GrantedAuthority> authorities(long mask) {
+        Snapshot current = snapshot;
+        return current.byMask().computeIfAbsent(mask, m -> {
+            List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(m));
+            for (long bits = m; bits != 0; bits &= bits - 1) {
+                RoleEntry entry = current.byId().get((long) Long.numberOfTrailingZeros(bits));
+                // Bit de role removida do catálogo — ignorado
+                if (entry != null) {
+                    authorities.add(entry.authority());
+                }
+            }
+            return List.copyOf(authorities);
+        });
+    }
+
+    public List<RoleResponse> all() {
+        return snapshot.byName().values().stream()
+                .sorted(Comparator.comparing(RoleEntry::id))
+                .map(entry -> new RoleResponse(entry.id(), entry.name()))
+                .toList();
+    }
+
+    private record RoleEntry(Long id, String name, GrantedAuthority authority) {
+
+        long bit() {
+            return id >= 1 && id <= MAX_MASK_ROLE_ID ? 1L << id : 0;
+        }
+    }
+
+    // byMask é só um cache derivado — descartado junto com o snapshot na recarga
+    private record Snapshot(Map<String, RoleEntry> byName,
+                            Map<Long, RoleEntry> byId,
+                            Map<Long, List<GrantedAuthority>> byMask) {
+
+        static final Snapshot EMPTY = of(List.of());
+
+        static Snapshot of(List<Role> roles) {
+            List<RoleEntry> entries = roles.stream()
+                    .map(role -> new RoleEntry(role.getId(), role.getName(), new SimpleGrantedAuthority("ROLE_" + role.getName())))
+                    .toList();
+            return new Snapshot(
+                    entries.stream().collect(Collectors.toUnmodifiableMap(RoleEntry::name, Function.identity())),
+                    entries.stream().collect(Collectors.toUnmodifiableMap(RoleEntry::id, Function.identity())),
+                    new ConcurrentHashMap<>()
+            );
+        }
+
+        boolean containsAll(Collection<String> names) {
+            for (String name : names) {
+                if (!byName.containsKey(name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
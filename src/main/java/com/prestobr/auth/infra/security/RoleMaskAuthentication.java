@@ -0,0 +1,74 @@
+package com.prestobr.auth.infra.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authentication imutável com as roles em bitmask (bit = id da role, ver RoleCatalog).
+ *
+ * Criada uma vez por token/API Key e reaproveitada em todas as requisições — o filtro só a coloca
+ * no SecurityContext, e o RoleBitAuthorizationManager decide com um AND de bits, sem montar
+ * nem percorrer listas de strings. As authorities continuam disponíveis para o resto do Spring.
+ *
+ * O principal é o username — os controllers usam @AuthenticationPrincipal String.
+ */
+public final class RoleMaskAuthentication implements Authentication {
+
+    private final String username;
+    private final long roleMask;
+    private final List<GrantedAuthority> authorities;
+
+    public RoleMaskAuthentication(String username, long roleMask, List<GrantedAuthority> authorities) {
+        this.username = username;
+        this.roleMask = roleMask;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    // Instância compartilhada entre requisições — não pode ser alterada
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        throw new IllegalArgumentException("RoleMaskAuthentication is immutable");
+    }
+
+    @Override
+    public String toString() {
+        return "RoleMaskAuthentication[username=" + username + ", roleMask=" + Long.toBinaryString(roleMask) + "]";
+    }
+}
@@ -0,0 +1,151 @@
+package com.prestobr.auth.infra.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * API Keys assinadas ("pbs_<payload>.<mac>"): a própria chave diz quem é o dono e o que pode fazer.
+ *
+ *   - payload (Base64URL): versão, id da chave, expiração, bitmask de roles e username do dono
+ *   - mac (Base64URL): HMAC-SHA256 do payload, com chave derivada de api-key.secret
+ *
+ * A verificação é só o HMAC — não depende de banco nem de cache aquecido, então funciona igual
+ * num nó recém-iniciado. A chave continua gravada em api_keys (listagem e revogação); a revogação
+ * é consultada em memória (ApiKeyPrincipalCache.isSignedKeyRevoked).
+ */
+@Component
+public class SignedApiKeys {
+
+    public static final String KEY_PREFIX = "pbs_";
+
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 1 + Long.BYTES * 3; // versão, id, expiração, roles
+    private static final int MAC_BYTES = 32;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec signingKey;
+
+    // Mac não é thread-safe — instâncias já inicializadas, reservadas por requisição
+    private final InstancePool<Mac> macs;
+
+    public SignedApiKeys(@Value("${api-key.secret:${jwt.secret}}") String secret) {
+        // Chave própria, derivada do segredo — um HMAC de key_hash nunca vale como assinatura e vice-versa
+        byte[] derived = hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM),
+                "signed-api-key".getBytes(StandardCharsets.US_ASCII));
+        this.signingKey = new SecretKeySpec(derived, HMAC_ALGORITHM);
+        this.macs = new InstancePool<>(this::newMac);
+    }
+
+    // Monta a chave assinada; expiresAt null = sem expiração
+    public String issue(long keyId, String username, long roleMask, LocalDateTime expiresAt) {
+        byte[] owner = username.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ByteBuffer.allocate(HEADER_BYTES + owner.length)
+                .put(VERSION)
+                .putLong(keyId)
+                .putLong(expiresAt == null ? 0 : expiresAt.atZone(ZoneId.systemDefault()).toEpochSecond())
+                .putLong(roleMask)
+                .put(owner)
+                .array();
+
+        return KEY_PREFIX + ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public boolean isSigned(String rawKey) {
+        return rawKey != null && rawKey.startsWith(KEY_PREFIX);
+    }
+
+    /**
+     * Confere a assinatura e decodifica a chave. Vazio se o formato for inválido ou o MAC não bater.
+     * Expiração e revogação ficam com quem chama.
+     */
+    public Optional<SignedApiKey> verify(String rawKey) {
+        if (!isSigned(rawKey)) {
+            return Optional.empty();
+        }
+        int dot = rawKey.indexOf('.', KEY_PREFIX.length());
+        if (dot < 0) {
+            return Optional.empty();
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(rawKey.substring(KEY_PREFIX.length(), dot));
+            signature = DECODER.decode(rawKey.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        // Comparação em tempo constante para não vazar informação por timing
+        if (payload.length <= HEADER_BYTES
+                || signature.length != MAC_BYTES
+                || !MessageDigest.isEqual(sign(payload), signature)) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (buffer.get() != VERSION) {
+            return Optional.empty();
+        }
+        long keyId = buffer.getLong();
+        long expiresAtEpochSec = buffer.getLong();
+        long roleMask = buffer.getLong();
+        String username = new String(payload, HEADER_BYTES, payload.length - HEADER_BYTES, StandardCharsets.UTF_8);
+
+        return Optional.of(new SignedApiKey(keyId, username, roleMask, expiresAtEpochSec));
+    }
+
+    private byte[] sign(byte[] payload) {
+        InstancePool.Lease<Mac> mac = macs.acquire();
+        try {
+            return mac.get().doFinal(payload);
+        } finally {
+            mac.release();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(signingKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize signed API Key HMAC", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(key);
+            return instance.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive signed API Key secret", e);
+        }
+    }
+
+    /**
+     * Conteúdo de uma chave assinada já verificada.
+     * expiresAtEpochSec = 0 quando a chave não expira.
+     */
+    public record SignedApiKey(long keyId, String username, long roleMask, long expiresAtEpochSec) {
+
+        public boolean isExpired(long nowEpochSec) {
+            return expiresAtEpochSec != 0 && expiresAtEpochSec <= nowEpochSec;
+        }
+    }
+}
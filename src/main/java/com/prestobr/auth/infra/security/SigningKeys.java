@@ -0,0 +1,167 @@
+package com.prestobr.auth.infra.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Chaves assimétricas de assinatura dos tokens (ES256 ou EdDSA), identificadas por "kid".
+ *
+ * As chaves ficam num diretório (jwt.signing.key-dir), um par de arquivos PEM por kid:
+ *   <kid>.key  — chave privada PKCS#8 (só no(s) nó(s) que emitem token)
+ *   <kid>.pub  — chave pública X.509
+ *
+ * Ex.: openssl genpkey -algorithm EC -pkeyopt ec_paramgen_curve:P-256 -out 2026-10.key
+ *      openssl pkey -in 2026-10.key -pubout -out 2026-10.pub
+ *
+ * Rotação com sobreposição:
+ *   1. Adiciona o par novo no diretório — a chave pública já aparece no JWKS
+ *   2. Depois que os consumidores atualizaram o JWKS, troca jwt.signing.active-kid para o kid novo
+ *   3. Remove o par antigo só depois que o último token assinado com ele expirou
+ *
+ * Sem jwt.signing.key-dir configurado, o serviço continua assinando com HMAC (jwt.secret).
+ */
+@Slf4j
+@Component
+public class SigningKeys {
+
+    private static final List<String> KEY_ALGORITHMS = List.of("EC", "Ed25519");
+
+    private final Map<String, PublicKey> publicKeys;
+    private final SigningKey activeKey;
+    private final String jwksJson;
+
+    public SigningKeys(@Value("${jwt.signing.key-dir:}") String keyDir,
+                       @Value("${jwt.signing.active-kid:}") String activeKid) throws IOException {
+
+        this.publicKeys = keyDir.isBlank() ? Map.of() : loadPublicKeys(Path.of(keyDir));
+
+        if (activeKid.isBlank()) {
+            this.activeKey = null;
+        } else {
+            PublicKey publicKey = publicKeys.get(activeKid);
+            if (publicKey == null) {
+                throw new IllegalStateException("No public key found for jwt.signing.active-kid=" + activeKid);
+            }
+            PrivateKey privateKey = readPrivateKey(Path.of(keyDir, activeKid + ".key"));
+            this.activeKey = new SigningKey(activeKid, privateKey, algorithmFor(publicKey));
+        }
+
+        this.jwksJson = buildJwks(publicKeys);
+
+        log.info("JWT signing: {} (verification keys: {})",
+                activeKey == null ? "HMAC" : activeKey.algorithm().getId() + " kid=" + activeKey.kid(),
+                publicKeys.keySet());
+    }
+
+    // Chave usada para assinar novos tokens; null = modo HMAC
+    public SigningKey activeKey() {
+        return activeKey;
+    }
+
+    public PublicKey publicKey(String kid) {
+        return publicKeys.get(kid);
+    }
+
+    // JWK Set pronto (RFC 7517) — montado uma vez, servido em /.well-known/jwks.json
+    public String jwksJson() {
+        return jwksJson;
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey, SignatureAlgorithm algorithm) {}
+
+    private static Map<String, PublicKey> loadPublicKeys(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".pub"))
+                    .sorted()
+                    .collect(Collectors.toMap(
+                            file -> file.getFileName().toString().replaceFirst("\\.pub$", ""),
+                            SigningKeys::readPublicKey,
+                            (a, b) -> a,
+                            LinkedHashMap::new
+                    ));
+        }
+    }
+
+    private static PublicKey readPublicKey(Path file) {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(readPem(file));
+        for (String algorithm : KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(spec);
+            } catch (GeneralSecurityException ignored) {
+                // tenta o próximo tipo de chave
+            }
+        }
+        throw new IllegalStateException("Unsupported public key (expected EC P-256 or Ed25519): " + file);
+    }
+
+    private static PrivateKey readPrivateKey(Path file) {
+        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(readPem(file));
+        for (String algorithm : KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePrivate(spec);
+            } catch (GeneralSecurityException ignored) {
+                // tenta o próximo tipo de chave
+            }
+        }
+        throw new IllegalStateException("Unsupported private key (expected EC P-256 or Ed25519): " + file);
+    }
+
+    private static byte[] readPem(Path file) {
+        try {
+            String base64 = Files.readString(file)
+                    .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                    .replaceAll("\\s", "");
+            return Base64.getDecoder().decode(base64);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read key file " + file, e);
+        }
+    }
+
+    private static SignatureAlgorithm algorithmFor(PublicKey key) {
+        if (key instanceof ECPublicKey ec) {
+            if (ec.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("Only P-256 EC keys are supported (ES256)");
+            }
+            return Jwts.SIG.ES256;
+        }
+        return Jwts.SIG.EdDSA;
+    }
+
+    private static String buildJwks(Map<String, PublicKey> keys) {
+        String jwks = keys.entrySet().stream()
+                .map(entry -> {
+                    PublicJwk<?> jwk = Jwks.builder()
+                            .key(entry.getValue())
+                            .id(entry.getKey())
+                            .algorithm(algorithmFor(entry.getValue()).getId())
+                            .publicKeyUse("sig")
+                            .build();
+                    return Jwks.json(jwk);
+                })
+                .collect(Collectors.joining(","));
+        return "{\"keys\":[" + jwks + "]}";
+    }
+}
@@ -0,0 +1,158 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.RevokedSubject;
+import com.prestobr.auth.domain.entity.RevokedToken;
+import com.prestobr.auth.infra.datasource.ReplicaRouting;
+import com.prestobr.auth.repository.RevokedSubjectRepository;
+import com.prestobr.auth.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de tokens JWT revogados antes do "exp", consultada pelo JwtAuthFilter em toda requisição.
+ *
+ * Dois tipos de revogação:
+ *   - por token ("jti"): ex.: logout — Bloom filter na frente de um set exato
+ *   - por usuário: todos os tokens emitidos até um instante — ex.: roles alteradas em updateRoles
+ *
+ * A consulta não aloca e não trava: para quase todo token o Bloom filter já responde "não revogado".
+ * Entradas são gravadas no banco (revoked_tokens / revoked_subjects), propagadas para as outras
+ * réplicas via NOTIFY e podadas quando o token afetado já teria expirado — a memória fica limitada
+ * às revogações ainda válidas.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RevokedSubjectRepository revokedSubjectRepository;
+    private final long expectedEntries;
+    // jwt.expiration-ms: maior validade de token já emitida, não a do access token atual
+    // (jwt.access-expiration-ms) — a revogação por usuário dura até o último token afetado expirar
+    private final Duration tokenLifetime;
+
+    // jti → exp (epoch em segundos)
+    private final Map<UUID, Long> revokedTokens = new ConcurrentHashMap<>();
+    // username → tokens com iat < este instante (epoch em segundos) estão revogados
+    private final Map<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+    private final Map<String, Long> subjectExpiry = new ConcurrentHashMap<>();
+
+    private volatile RevocationBloomFilter bloomFilter;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               RevokedSubjectRepository revokedSubjectRepository,
+                               @Value("${jwt.revocation.expected-entries:1000000}") long expectedEntries,
+                               @Value("${jwt.expiration-ms}") long expirationMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedSubjectRepository = revokedSubjectRepository;
+        this.expectedEntries = expectedEntries;
+        this.tokenLifetime = Duration.ofMillis(expirationMs);
+        this.bloomFilter = new RevocationBloomFilter(expectedEntries);
+    }
+
+    // No primário — uma revogação recém-gravada que a réplica ainda não tem deixaria o token valendo
+    @PostConstruct
+    public void reload() {
+        Instant now = Instant.now();
+        try (ReplicaRouting.Pin pin = ReplicaRouting.pinToPrimary()) {
+            revokedTokenRepository.findByExpiresAtAfter(now)
+                    .forEach(t -> applyRevokedToken(t.getJti(), t.getExpiresAt().getEpochSecond()));
+            revokedSubjectRepository.findByExpiresAtAfter(now)
+                    .forEach(s -> applyRevokedSubject(s.getUsername(),
+                            s.getRevokedBefore().getEpochSecond(), s.getExpiresAt().getEpochSecond()));
+        }
+
+        log.info("Loaded {} revoked tokens and {} revoked subjects", revokedTokens.size(), revokedSubjects.size());
+    }
+
+    /**
+     * @param jti              "jti" do token (null em tokens antigos, emitidos sem jti)
+     * @param subject          "sub" do token
+     * @param issuedAtEpochSec "iat" do token
+     */
+    public boolean isRevoked(UUID jti, String subject, long issuedAtEpochSec) {
+        if (!revokedSubjects.isEmpty()) {
+            Long revokedBefore = revokedSubjects.get(subject);
+            // "<": o iat tem só segundos — com "<=", o token do re-login ou refresh que a mudança de roles
+            // força, emitido no mesmo segundo, já nasceria revogado. Em troca, um token antigo emitido
+            // nesse mesmo segundo, antes da revogação, continua valendo
+            if (revokedBefore != null && issuedAtEpochSec < revokedBefore) {
+                return true;
+            }
+        }
+        return jti != null
+                && bloomFilter.mightContain(jti)
+                && revokedTokens.containsKey(jti);
+    }
+
+    // Revoga um token específico (ex.: logout)
+    public void revokeToken(UUID jti, Instant expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .build());
+        applyRevokedToken(jti, expiresAt.getEpochSecond());
+    }
+
+    // Revoga todos os tokens do usuário emitidos antes do segundo atual (ex.: roles alteradas)
+    public void revokeSubject(String username) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(tokenLifetime);
+        revokedSubjectRepository.save(RevokedSubject.builder()
+                .username(username)
+                .revokedBefore(now)
+                .expiresAt(expiresAt)
+                .build());
+        applyRevokedSubject(username, now.getEpochSecond(), expiresAt.getEpochSecond());
+    }
+
+    // Aplica só em memória — revogação feita em outro nó, recebida via NOTIFY
+    public synchronized void applyRevokedToken(UUID jti, long expiresAtEpochSec) {
+        revokedTokens.put(jti, expiresAtEpochSec);
+        bloomFilter.add(jti);
+    }
+
+    public void applyRevokedSubject(String username, long revokedBeforeEpochSec, long expiresAtEpochSec) {
+        revokedSubjects.merge(username, revokedBeforeEpochSec, Math::max);
+        subjectExpiry.merge(username, expiresAtEpochSec, Math::max);
+    }
+
+    /**
+     * Remove revogações cujos tokens já expiraram (em memória e no banco) e recria o Bloom filter,
+     * que não suporta remoção — assim a taxa de falso positivo não cresce com o tempo.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-ms:300000}")
+    @Transactional
+    public void prune() {
+        Instant now = Instant.now();
+        long nowEpochSec = now.getEpochSecond();
+
+        synchronized (this) {
+            revokedTokens.values().removeIf(exp -> exp <= nowEpochSec);
+            RevocationBloomFilter rebuilt = new RevocationBloomFilter(expectedEntries);
+            revokedTokens.keySet().forEach(rebuilt::add);
+            bloomFilter = rebuilt;
+        }
+
+        subjectExpiry.entrySet().removeIf(entry -> {
+            if (entry.getValue() <= nowEpochSec) {
+                revokedSubjects.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+
+        revokedTokenRepository.deleteExpired(now);
+        revokedSubjectRepository.deleteExpired(now);
+    }
+}
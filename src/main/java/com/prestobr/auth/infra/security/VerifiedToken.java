@@ -0,0 +1,25 @@
+package com.prestobr.auth.infra.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Resultado imutável da verificação de um token JWT (subject, roles, bitmask de roles, jti, iat e exp).
+ *
+ * roleMask é null em tokens emitidos antes da claim "rb".
+ *
+ * Produzido uma única vez por {@link JwtService#verify(String)} — assinatura conferida
+ * e claims já decodificadas — para que o filtro não precise fazer o parse do token de novo.
+ */
+public record VerifiedToken(
+        String subject,
+        List<String> roles,
+        Long roleMask,
+        String jti,
+        Instant issuedAt,
+        Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+}
@@ -0,0 +1,163 @@
+package com.prestobr.auth.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache em memória de tokens JWT já verificados.
+ *
+ * Os clientes reutilizam o mesmo token por milhares de chamadas; com o cache, só a primeira
+ * paga a verificação HMAC, o parse do JSON e a montagem das authorities.
+ *
+ *   - Chave: SHA-256 do token (o token em si nunca fica guardado)
+ *   - Valor: subject + Authentication pronta para o SecurityContext (bitmask + authorities)
+ *   - Expiração: cada entrada expira junto com o próprio token ("exp")
+ *   - Tamanho máximo configurável em jwt.cache.max-size
+ *
+ * Métricas expostas no actuator com o nome "jwt.verified-tokens" (cache.gets, cache.evictions...).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final RoleCatalog roleCatalog;
+    private final Cache<TokenDigest, CachedPrincipal> cache;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              RoleCatalog roleCatalog,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtService = jwtService;
+        this.roleCatalog = roleCatalog;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    /**
+     * Retorna o principal do token — do cache se já foi verificado antes,
+     * senão verifica, monta as authorities e guarda. Vazio se o token for inválido.
+     */
+    public Optional<CachedPrincipal> resolve(String token) {
+        TokenDigest digest = TokenDigest.of(token);
+
+        CachedPrincipal cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<CachedPrincipal> principal = jwtService.verify(token)
+                .map(verified -> CachedPrincipal.from(verified, roleCatalog));
+        principal.ifPresent(p -> cache.put(digest, p));
+        return principal;
+    }
+
+    // Remove do cache todos os tokens de um usuário — usado quando o usuário perde acesso
+    public void invalidateSubject(String subject) {
+        cache.asMap().values().removeIf(p -> p.subject().equals(subject));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Principal já pronto para o SecurityContext — a Authentication é montada uma vez
+     * por token e a mesma instância vai para todas as requisições com esse token.
+     */
+    public record CachedPrincipal(
+            String subject,
+            RoleMaskAuthentication authentication,
+            UUID jti,
+            long issuedAtEpochSec,
+            Instant expiresAt) {
+
+        static CachedPrincipal from(VerifiedToken token, RoleCatalog roleCatalog) {
+            // O Spring exige o prefixo "ROLE_" para funcionar com hasRole()
+            // Ex: "FISCAL_READ" → "ROLE_FISCAL_READ" — instâncias compartilhadas do catálogo
+            // Bitmask da claim "rb"; tokens mais antigos recalculam pelos nomes
+            long roleMask = token.roleMask() != null ? token.roleMask() : roleCatalog.maskOfNames(token.roles());
+            return new CachedPrincipal(
+                    token.subject(),
+                    new RoleMaskAuthentication(token.subject(), roleMask, roleCatalog.authorities(token.roles())),
+                    parseJti(token.jti()),
+                    token.issuedAt().getEpochSecond(),
+                    token.expiresAt()
+            );
+        }
+
+        // Tokens emitidos antes do "jti" (ou com jti fora do formato UUID) só podem ser revogados por usuário
+        private static UUID parseJti(String jti) {
+            if (jti == null) {
+                return null;
+            }
+            try {
+                return UUID.fromString(jti);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    // SHA-256 do token em 4 longs — equals/hashCode baratos e sem guardar o token em memória
+    record TokenDigest(long a, long b, long c, long d) {
+
+        // MessageDigest não é thread-safe — sem ThreadLocal, que com virtual threads nasce a cada requisição
+        private static final InstancePool<MessageDigest> SHA256 = new InstancePool<>(() -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        static TokenDigest of(String token) {
+            byte[] data = token.getBytes(StandardCharsets.US_ASCII);
+            byte[] hash;
+            InstancePool.Lease<MessageDigest> sha256 = SHA256.acquire();
+            try {
+                hash = sha256.get().digest(data);
+            } finally {
+                sha256.release();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    // Cada entrada vive até o "exp" do próprio token
+    private static final class TokenExpiry implements Expiry<TokenDigest, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, CachedPrincipal value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
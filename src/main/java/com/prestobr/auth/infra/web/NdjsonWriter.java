@@ -0,0 +1,53 @@
+package com.prestobr.auth.infra.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Escreve objetos como NDJSON (um JSON por linha) direto no OutputStream da resposta.
+ *
+ * Nada é acumulado em memória: cada objeto é serializado e descartado. O primeiro objeto
+ * sai imediatamente e depois a saída é descarregada a cada flushEvery linhas.
+ */
+public class NdjsonWriter implements AutoCloseable {
+
+    private final ObjectWriter objectWriter;
+    private final JsonGenerator generator;
+    private final int flushEvery;
+    private long written;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out, int flushEvery) throws IOException {
+        // Sem flush a cada objeto — o flush fica a cargo de flushEvery
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.createGenerator(out);
+        // Quem fecha o stream da resposta é o container
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Sem o espaço que o Jackson coloca entre valores de topo — o separador é o "\n"
+        this.generator.setRootValueSeparator(null);
+        this.flushEvery = flushEvery;
+    }
+
+    // Unchecked para poder ser usado como Consumer pelos services
+    public void write(Object value) {
+        try {
+            objectWriter.writeValue(generator, value);
+            generator.writeRaw('\n');
+            if (written++ % flushEvery == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -1,10 +1,20 @@
 package com.prestobr.auth.repository;
 
 import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.repository.projection.ApiKeyRoleRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // Repositório responsável pelo acesso ao banco de dados para a entidade ApiKey.
 
@@ -12,7 +22,68 @@ public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
 
     Optional<ApiKey> findByKeyHash(String keyHash);
 
+    Optional<ApiKey> findByKeyPrefix(String keyPrefix);
+
+    // Revogação/atualização e recarga do cache: chave, dono e roles numa única query
+    @EntityGraph(attributePaths = {"user", "roles"})
+    Optional<ApiKey> findWithUserAndRolesById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "roles"})
     List<ApiKey> findByUserIdOrderByIdAsc(Long userId);
 
+    // Listagem admin: roles no mesmo SELECT (sem N+1)
+    @EntityGraph(attributePaths = "roles")
     List<ApiKey> findAllByOrderByIdAsc();
+
+    // Paginação por cursor: ids da próxima página (filtros nulos são ignorados)
+    @Query("""
+            SELECT k.id FROM ApiKey k
+            WHERE k.id > :afterId
+              AND (:active IS NULL OR k.active = :active)
+              AND (:role IS NULL OR EXISTS (SELECT 1 FROM k.roles r WHERE r.name = :role))
+              AND (:expiringBefore IS NULL OR k.expiresAt < :expiringBefore)
+            ORDER BY k.id
+            """)
+    List<Long> findPageIds(long afterId, Boolean active, String role, LocalDateTime expiringBefore, Pageable pageable);
+
+    @EntityGraph(attributePaths = "roles")
+    List<ApiKey> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // Exportação em stream: uma linha por chave × role, ordenada por chave — ver UserRepository.streamRows
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.prestobr.auth.repository.projection.ApiKeyRoleRow(
+                k.id, k.description, k.active, k.expiresAt, k.createdAt, r.id, r.name)
+            FROM ApiKey k LEFT JOIN k.roles r
+            WHERE (:active IS NULL OR k.active = :active)
+              AND (:role IS NULL OR EXISTS (SELECT 1 FROM k.roles fr WHERE fr.name = :role))
+              AND (:expiringBefore IS NULL OR k.expiresAt < :expiringBefore)
+            ORDER BY k.id, r.id
+            """)
+    Stream<ApiKeyRoleRow> streamRows(Boolean active, String role, LocalDateTime expiringBefore);
+
+    // Chaves que podem autenticar agora: ativas, não expiradas, com dono ativo e no formato com prefixo
+    @Query("""
+            SELECT k FROM ApiKey k
+            JOIN FETCH k.user u
+            LEFT JOIN FETCH k.roles
+            WHERE k.active = true
+              AND k.keyPrefix IS NOT NULL
+              AND u.active = true
+              AND (k.expiresAt IS NULL OR k.expiresAt > :now)
+            """)
+    List<ApiKey> findAllUsable(LocalDateTime now);
+
+    // Chaves assinadas que não podem mais autenticar (revogadas ou com dono inativo) e ainda não expiraram
+    @Query("""
+            SELECT k FROM ApiKey k
+            JOIN FETCH k.user u
+            WHERE k.signed = true
+              AND (k.active = false OR u.active = false)
+              AND (k.expiresAt IS NULL OR k.expiresAt > :now)
+            """)
+    List<ApiKey> findRevokedSigned(LocalDateTime now);
 }
@@ -0,0 +1,34 @@
+package com.prestobr.auth.repository;
+
+import com.prestobr.auth.domain.entity.AuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+// Repositório responsável pelo acesso ao banco de dados para a trilha de auditoria.
+
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    // Paginação por cursor (filtros nulos são ignorados); from/to limitam as partições lidas
+    @Query("""
+            SELECT e FROM AuditEvent e
+            WHERE e.id > :afterId
+              AND (:username IS NULL OR e.username = :username)
+              AND (:type IS NULL OR e.type = :type)
+              AND (:from IS NULL OR e.occurredAt >= :from)
+              AND (:to IS NULL OR e.occurredAt < :to)
+            ORDER BY e.id
+            """)
+    List<AuditEvent> findPage(long afterId, String username, AuditEvent.Type type, Instant from, Instant to, Pageable pageable);
+
+    // Cria (se ainda não existir) a partição do mês — retorna o nome da partição.
+    // Transação de escrita explícita: é DDL, não pode cair numa transação read-only (nem na réplica)
+    @Transactional
+    @Query(value = "SELECT audit_events_create_partition(:month)", nativeQuery = true)
+    String createPartition(LocalDate month);
+}
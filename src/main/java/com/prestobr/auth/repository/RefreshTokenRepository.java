@@ -0,0 +1,42 @@
+package com.prestobr.auth.repository;
+
+import com.prestobr.auth.domain.entity.RefreshToken;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+// Repositório responsável pelo acesso ao banco de dados para a entidade RefreshToken.
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Usuário e roles vêm junto — o refresh emite um novo access token com elas
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Consome o token de forma atômica — retorna 0 se outro refresh já usou o mesmo token
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.revoked = false")
+    int markUsed(Long id, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(UUID familyId);
+
+    // Logout sem o refresh token da sessão: todas as famílias ainda ativas do usuário
+    @Modifying
+    @Query("""
+            UPDATE RefreshToken t SET t.revoked = true
+            WHERE t.revoked = false
+              AND t.user.id IN (SELECT u.id FROM User u WHERE u.username = :username)
+            """)
+    int revokeAllByUsername(String username);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
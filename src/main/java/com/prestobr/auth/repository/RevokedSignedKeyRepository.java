@@ -0,0 +1,21 @@
+package com.prestobr.auth.repository;
+
+import com.prestobr.auth.domain.entity.RevokedSignedKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Repositório responsável pelo acesso ao banco de dados para a entidade RevokedSignedKey.
+
+public interface RevokedSignedKeyRepository extends JpaRepository<RevokedSignedKey, Long> {
+
+    @Query("SELECT k FROM RevokedSignedKey k WHERE k.expiresAt IS NULL OR k.expiresAt > :now")
+    List<RevokedSignedKey> findNotExpired(LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedSignedKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.prestobr.auth.repository;
+
+import com.prestobr.auth.domain.entity.RevokedSubject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+// Repositório responsável pelo acesso ao banco de dados para a entidade RevokedSubject.
+
+public interface RevokedSubjectRepository extends JpaRepository<RevokedSubject, String> {
+
+    List<RevokedSubject> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedSubject s WHERE s.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
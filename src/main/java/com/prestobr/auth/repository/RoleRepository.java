@@ -1,8 +1,9 @@
 package com.prestobr.auth.repository;
 
-import com.prestobr.auth.domain.entity.ApiKey;
 import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.dto.response.RoleResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +13,13 @@ import java.util.Optional;
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
     Optional<Role> findByNameOrderById(String name);
+
+    // Roles de um usuário direto como DTO — sem carregar a entidade User
+    @Query("""
+            SELECT new com.prestobr.auth.dto.response.RoleResponse(r.id, r.name)
+            FROM User u JOIN u.roles r
+            WHERE u.username = :username
+            ORDER BY r.id
+            """)
+    List<RoleResponse> findResponsesByUsername(String username);
 }
@@ -1,15 +1,72 @@
 package com.prestobr.auth.repository;
 
 import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.repository.projection.UserRoleRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 // Repositório responsável pelo acesso ao banco de dados para a entidade User
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsernameOrderById(String username);
 
+    // Login: usuário e roles numa única query
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
+
+    // Paginação por cursor: ids da próxima página (filtros nulos são ignorados)
+    @Query("""
+            SELECT u.id FROM User u
+            WHERE u.id > :afterId
+              AND (:active IS NULL OR u.active = :active)
+              AND (:role IS NULL OR EXISTS (SELECT 1 FROM u.roles r WHERE r.name = :role))
+            ORDER BY u.id
+            """)
+    List<Long> findPageIds(long afterId, Boolean active, String role, Pageable pageable);
+
+    // Carrega a página de ids com as roles — sem LIMIT sobre o JOIN FETCH da coleção
+    @EntityGraph(attributePaths = "roles")
+    List<User> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Exportação em stream: uma linha por usuário × role, ordenada por usuário.
+     * Projeção (nada fica no persistence context) com fetch size limitado — heap constante.
+     * Precisa ser consumido dentro de uma transação.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.prestobr.auth.repository.projection.UserRoleRow(
+                u.id, u.username, u.email, u.active, u.createdAt, r.id, r.name)
+            FROM User u LEFT JOIN u.roles r
+            WHERE (:active IS NULL OR u.active = :active)
+              AND (:role IS NULL OR EXISTS (SELECT 1 FROM u.roles fr WHERE fr.name = :role))
+            ORDER BY u.id, r.id
+            """)
+    Stream<UserRoleRow> streamRows(Boolean active, String role);
+
+    // Validação em lote: quais destes usernames/emails já existem (uma query por lote)
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    List<User> findByUsernameIn(Collection<String> usernames);
+
     Optional<User> findByEmail(String email);
 
     boolean existsByUsername(String username);
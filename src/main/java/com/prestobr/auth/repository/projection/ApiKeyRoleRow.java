@@ -0,0 +1,14 @@
+package com.prestobr.auth.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Linha "API Key × role" da exportação em stream — uma chave sem roles vem com roleId/roleName nulos
+public record ApiKeyRoleRow(
+        Long id,
+        String description,
+        boolean active,
+        LocalDateTime expiresAt,
+        LocalDateTime createdAt,
+        Long roleId,
+        String roleName) {
+}
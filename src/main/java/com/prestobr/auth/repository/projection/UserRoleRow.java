@@ -0,0 +1,14 @@
+package com.prestobr.auth.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Linha "usuário × role" da exportação em stream — um usuário sem roles vem com roleId/roleName nulos
+public record UserRoleRow(
+        Long id,
+        String username,
+        String email,
+        boolean active,
+        LocalDateTime createdAt,
+        Long roleId,
+        String roleName) {
+}
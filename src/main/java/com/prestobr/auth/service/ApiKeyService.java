@@ -1,49 +1,71 @@
 package com.prestobr.auth.service;
 
 import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.domain.entity.AuditEvent;
 import com.prestobr.auth.domain.entity.Role;
 import com.prestobr.auth.domain.entity.User;
 import com.prestobr.auth.dto.request.ApiKeyRequest;
 import com.prestobr.auth.dto.request.ApiKeyUpdateRequest;
 import com.prestobr.auth.dto.response.ApiKeyResponse;
+import com.prestobr.auth.dto.response.CursorPage;
+import com.prestobr.auth.dto.response.RoleResponse;
+import com.prestobr.auth.infra.audit.AuditLog;
+import com.prestobr.auth.infra.security.ApiKeyHasher;
+import com.prestobr.auth.infra.security.ApiKeyHasher.GeneratedApiKey;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.SignedApiKeys;
 import com.prestobr.auth.repository.ApiKeyRepository;
-import com.prestobr.auth.repository.RoleRepository;
 import com.prestobr.auth.repository.UserRepository;
+import com.prestobr.auth.repository.projection.ApiKeyRoleRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ApiKeyService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ApiKeyRepository apiKeyRepository;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RoleCatalog roleCatalog;
+    private final ApiKeyHasher apiKeyHasher;
+    private final ApiKeyPrincipalCache apiKeyPrincipalCache;
+    private final SignedApiKeys signedApiKeys;
+    private final AuditLog auditLog;
 
+    @Transactional
     public ApiKeyResponse create(String username, ApiKeyRequest request) {
 
         User user = userRepository.findByUsernameOrderById(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found."));
 
-        Set<Role> roles = request.getRoles().stream()
-                .map(roleName -> roleRepository.findByNameOrderById(roleName)
-                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role not found: " + roleName)))
-                .collect(Collectors.toSet());
+        Set<Role> roles = roleCatalog.resolve(request.getRoles());
+
+        if (request.isSigned()) {
+            return createSigned(user, roles, request);
+        }
 
-        String rawKey = UUID.randomUUID().toString().replace("-", "");
-        String keyHash = passwordEncoder.encode(rawKey);
+        // Formato "pb_<prefixo>_<segredo>" — só o HMAC do segredo é gravado
+        GeneratedApiKey generated = apiKeyHasher.generate();
 
         ApiKey apiKey = ApiKey.builder()
-                .keyHash(keyHash)
+                .keyHash(generated.keyHash())
+                .keyPrefix(generated.prefix())
                 .description(request.getDescription())
                 .user(user)
                 .roles(roles)
@@ -51,13 +73,44 @@ public class ApiKeyService {
                 .build();
 
         apiKeyRepository.save(apiKey);
+        apiKeyPrincipalCache.put(apiKey);
+        auditLog.record(AuditEvent.Type.API_KEY_CREATED, username, apiKey.getId(), AuditLog.roleNames(roles));
+
+        return ApiKeyResponse.from(apiKey, generated.rawKey());
+    }
+
+    /**
+     * Chave assinada: o id entra na própria chave, então a linha é gravada antes (o id vem da
+     * sequence no save) e o key_hash definitivo é atualizado na mesma transação.
+     */
+    private ApiKeyResponse createSigned(User user, Set<Role> roles, ApiKeyRequest request) {
+        long roleMask;
+        try {
+            roleMask = roleCatalog.mask(roles);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        ApiKey apiKey = ApiKey.builder()
+                .keyHash("pending:" + UUID.randomUUID()) // substituído abaixo, antes do commit
+                .description(request.getDescription())
+                .signed(true)
+                .user(user)
+                .roles(roles)
+                .expiresAt(request.getExpiresAt())
+                .build();
+        apiKeyRepository.save(apiKey);
+
+        String rawKey = signedApiKeys.issue(apiKey.getId(), user.getUsername(), roleMask, request.getExpiresAt());
+        apiKey.setKeyHash(apiKeyHasher.hash(rawKey));
+        auditLog.record(AuditEvent.Type.API_KEY_CREATED, user.getUsername(), apiKey.getId(), AuditLog.roleNames(roles));
 
         return ApiKeyResponse.from(apiKey, rawKey);
     }
 
     public void revoke(String username, Long keyId) {
 
-        ApiKey apiKey = apiKeyRepository.findById(keyId)
+        ApiKey apiKey = apiKeyRepository.findWithUserAndRolesById(keyId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "API Key not found."));
 
         if (!apiKey.getUser().getUsername().equals(username)) {
@@ -66,27 +119,35 @@ public class ApiKeyService {
 
         apiKey.setActive(false);
         apiKeyRepository.save(apiKey);
+
+        // Revogação vale imediatamente neste nó — o filtro só consulta o índice em memória
+        // (chave com prefixo sai do índice; chave assinada entra na lista de revogadas)
+        apiKeyPrincipalCache.put(apiKey);
+        auditLog.record(AuditEvent.Type.API_KEY_REVOKED, username, keyId, null);
     }
 
     public ApiKeyResponse update(String username, Long keyId, ApiKeyUpdateRequest request) {
 
-        ApiKey apiKey = apiKeyRepository.findById(keyId)
+        ApiKey apiKey = apiKeyRepository.findWithUserAndRolesById(keyId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "API Key not found."));
 
         if (!apiKey.getUser().getUsername().equals(username)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You don't own this API Key.");
         }
 
+        // Roles e expiração de uma chave assinada estão dentro da própria chave — não mudam depois de emitida
+        if (apiKey.isSigned() && ((request.roles() != null && !request.roles().isEmpty()) || request.expiresAt() != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Roles and expiry of a signed API Key cannot be changed. Create a new key instead.");
+        }
+
         if (request.description() != null) {
             apiKey.setDescription(request.description());
         }
 
-        if (request.roles() != null && !request.roles().isEmpty()) {
-            Set<Role> roles = request.roles().stream()
-                    .map(name -> roleRepository.findByNameOrderById(name)
-                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role not found: " + name)))
-                    .collect(Collectors.toSet());
-            apiKey.setRoles(roles);
+        boolean rolesChanged = request.roles() != null && !request.roles().isEmpty();
+        if (rolesChanged) {
+            apiKey.setRoles(roleCatalog.resolve(request.roles()));
         }
 
         if (request.expiresAt() != null) {
@@ -94,9 +155,15 @@ public class ApiKeyService {
         }
 
         apiKeyRepository.save(apiKey);
+        apiKeyPrincipalCache.put(apiKey);
+        if (rolesChanged) {
+            auditLog.record(AuditEvent.Type.API_KEY_ROLES_CHANGED, username, keyId, AuditLog.roleNames(apiKey.getRoles()));
+        }
+
         return ApiKeyResponse.fromWithoutKey(apiKey);
     }
 
+    @Transactional(readOnly = true)
     public List<ApiKeyResponse> listByUser(String username) {
 
         User user = userRepository.findByUsernameOrderById(username)
@@ -107,10 +174,51 @@ public class ApiKeyService {
                 .toList();
     }
 
-    // Obtém todas as apikeys
-    public List<ApiKeyResponse> listAll(){
-        return apiKeyRepository.findAllByOrderByIdAsc().stream()
-                .map(apikey -> ApiKeyResponse.fromWithoutKey(apikey))
+    // Lista todas as apikeys paginando por cursor (id > afterId) — ver AuthService.listUsers
+    @Transactional(readOnly = true)
+    public CursorPage<ApiKeyResponse> listAll(Long afterId, int limit, Boolean active, String role, LocalDateTime expiringBefore) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        List<Long> ids = apiKeyRepository.findPageIds(
+                afterId == null ? 0 : afterId, active, role, expiringBefore, PageRequest.ofSize(size + 1));
+        boolean hasMore = ids.size() > size;
+        if (hasMore) {
+            ids = ids.subList(0, size);
+        }
+
+        List<ApiKeyResponse> items = ids.isEmpty() ? List.of() : apiKeyRepository.findByIdInOrderByIdAsc(ids).stream()
+                .map(ApiKeyResponse::fromWithoutKey)
                 .toList();
+
+        return new CursorPage<>(items, hasMore ? ids.get(ids.size() - 1) : null);
+    }
+
+    // Exporta todas as apikeys uma a uma para o sink, sem montar a lista — ver AuthService.exportUsers
+    @Transactional(readOnly = true)
+    public void exportAll(Boolean active, String role, LocalDateTime expiringBefore, Consumer<ApiKeyResponse> sink) {
+        try (Stream<ApiKeyRoleRow> rows = apiKeyRepository.streamRows(active, role, expiringBefore)) {
+            ApiKeyRoleRow current = null;
+            Set<RoleResponse> roles = new HashSet<>();
+
+            for (Iterator<ApiKeyRoleRow> it = rows.iterator(); it.hasNext(); ) {
+                ApiKeyRoleRow row = it.next();
+                if (current != null && !current.id().equals(row.id())) {
+                    sink.accept(toResponse(current, roles));
+                    roles = new HashSet<>();
+                }
+                current = row;
+                if (row.roleId() != null) {
+                    roles.add(new RoleResponse(row.roleId(), row.roleName()));
+                }
+            }
+
+            if (current != null) {
+                sink.accept(toResponse(current, roles));
+            }
+        }
+    }
+
+    private static ApiKeyResponse toResponse(ApiKeyRoleRow row, Set<RoleResponse> roles) {
+        return new ApiKeyResponse(row.id(), row.description(), null, row.active(), roles, row.expiresAt(), row.createdAt());
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.prestobr.auth.service;
+
+import com.prestobr.auth.domain.entity.AuditEvent;
+import com.prestobr.auth.dto.response.AuditEventResponse;
+import com.prestobr.auth.dto.response.CursorPage;
+import com.prestobr.auth.repository.AuditEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Consulta da trilha de auditoria — a gravação fica com o AuditLog, em lotes
+
+@Service
+@RequiredArgsConstructor
+public class AuditService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final AuditEventRepository auditEventRepository;
+
+    /**
+     * Lista eventos paginando por cursor (id > afterId) — ver AuthService.listUsers.
+     * Um intervalo from/to restringe a consulta às partições daqueles meses.
+     *
+     * Limitação: cada nó reserva ids em blocos de 50 (allocationSize) e grava em lotes, então a ordem
+     * dos ids não é a ordem de gravação entre nós. Um evento de um nó mais lento pode ser gravado com
+     * id menor que um cursor já entregue e não aparece para quem segue esse cursor. O cursor serve
+     * para navegar; para uma leitura completa (exportação, conciliação), consulte por janelas from/to
+     * já fechadas — alguns segundos no passado, além de audit.flush-interval-ms.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AuditEventResponse> list(Long afterId, int limit, String username, AuditEvent.Type type,
+                                               Instant from, Instant to) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        // Busca um a mais só para saber se existe próxima página
+        List<AuditEvent> events = auditEventRepository.findPage(
+                afterId == null ? 0 : afterId, username, type, from, to, PageRequest.ofSize(size + 1));
+        boolean hasMore = events.size() > size;
+        if (hasMore) {
+            events = events.subList(0, size);
+        }
+
+        List<AuditEventResponse> items = events.stream()
+                .map(AuditEventResponse::from)
+                .toList();
+
+        return new CursorPage<>(items, hasMore ? items.get(items.size() - 1).id() : null);
+    }
+}
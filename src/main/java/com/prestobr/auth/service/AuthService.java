@@ -1,37 +1,65 @@
 package com.prestobr.auth.service;
 
+import com.prestobr.auth.domain.entity.AuditEvent;
 import com.prestobr.auth.domain.entity.Role;
 import com.prestobr.auth.domain.entity.User;
 import com.prestobr.auth.dto.request.LoginRequest;
 import com.prestobr.auth.dto.request.RegisterRequest;
+import com.prestobr.auth.dto.response.CursorPage;
 import com.prestobr.auth.dto.response.LoginResponse;
 import com.prestobr.auth.dto.response.RoleResponse;
 import com.prestobr.auth.dto.response.UserResponse;
+import com.prestobr.auth.infra.audit.AuditLog;
+import com.prestobr.auth.infra.datasource.RecentWriters;
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.infra.metrics.AuthMetrics.LoginOutcome;
+import com.prestobr.auth.infra.security.AuthenticatedUser;
 import com.prestobr.auth.infra.security.JwtService;
+import com.prestobr.auth.infra.security.PasswordHashingBusyException;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.TokenRevocationList;
+import com.prestobr.auth.infra.security.VerifiedTokenCache;
 import com.prestobr.auth.repository.RoleRepository;
 import com.prestobr.auth.repository.UserRepository;
+import com.prestobr.auth.repository.projection.UserRoleRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final RoleCatalog roleCatalog;
+    private final AuthMetrics authMetrics;
+    private final AuditLog auditLog;
+    private final RecentWriters recentWriters;
 
     // Registra um novo usuário no sistema.
     public void register(RegisterRequest request) {
@@ -47,11 +75,8 @@ public class AuthService {
         Set<Role> roles = new HashSet<>();
 
         if (request.getRoles() != null && !request.getRoles().isEmpty()) {
-            // Busca cada role informada pelo nome
-            roles = request.getRoles().stream()
-                    .map(name -> roleRepository.findByNameOrderById(name) // verifica se o role existe
-                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role not found: " + name)))
-                    .collect(Collectors.toSet()); // junta tudo de volta em um Set<Role>
+            // Resolve todas as roles informadas no catálogo em memória (400 se alguma não existir)
+            roles = roleCatalog.resolve(request.getRoles());
         }
 
         User user = User.builder()
@@ -62,6 +87,9 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
+
+        // Login logo após o cadastro ainda não acharia o usuário numa réplica atrasada
+        recentWriters.record(user.getUsername());
     }
 
     // Atualiza as roles de um usuário
@@ -71,66 +99,142 @@ public class AuthService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found."));
 
-        Set<Role> roles = roleNames.stream()
-                .map(name -> roleRepository.findByNameOrderById(name) // verifica se o role existe
-                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role not found: " + name)))
-                .collect(Collectors.toSet());
+        Set<Role> roles = roleCatalog.resolve(roleNames);
 
         user.setRoles(roles);
         userRepository.save(user);
+        recentWriters.record(user.getUsername());
+
+        // Tokens já emitidos carregam as roles antigas — deixam de valer agora, não só no "exp"
+        tokenRevocationList.revokeSubject(user.getUsername());
+
+        auditLog.record(AuditEvent.Type.USER_ROLES_CHANGED, user.getUsername(), user.getId(), AuditLog.roleNames(roles));
+    }
+
+    // Logout: revoga o token usado na requisição e, na mesma transação, o refresh token da sessão —
+    // senão um refresh token vazado continuaria emitindo access tokens até expirar
+    @Transactional
+    public void logout(String token, String refreshToken) {
+        verifiedTokenCache.resolve(token).ifPresent(principal -> {
+            if (principal.jti() != null) {
+                tokenRevocationList.revokeToken(principal.jti(), principal.expiresAt());
+            }
+            refreshTokenService.revokeOnLogout(principal.subject(), refreshToken);
+        });
     }
 
     /**
      * Autentica um usuário e retorna um token JWT.
      *
-     *   1. AuthenticationManager valida username e senha
-     *   2. Busca o usuário no banco
-     *   3. Verifica se está ativo
-     *   4. Gera o token JWT com username e roles
-     *   5. Retorna o token
+     *   1. AuthenticationManager carrega o usuário (uma única query), recusa inativos
+     *      antes de comparar a senha e valida username e senha
+     *   2. Gera o token JWT com username e roles do principal autenticado
+     *   3. Abre uma família de refresh tokens
+     *   4. Retorna os tokens
+     *
+     * Duração e resultado de cada tentativa vão para auth.login{outcome}; o resultado, também para a auditoria.
      */
     public LoginResponse login(LoginRequest request) {
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+        long start = AuthMetrics.start();
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (DisabledException e) {
+            authMetrics.recordLogin(start, LoginOutcome.DISABLED);
+            auditLog.record(AuditEvent.Type.LOGIN_FAILED, request.getUsername(), null, "disabled");
+            // Mesma resposta de credencial inválida — não revela quais usuários existem
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials.");
+        } catch (AuthenticationException e) {
+            authMetrics.recordLogin(start, LoginOutcome.BAD_CREDENTIALS);
+            auditLog.record(AuditEvent.Type.LOGIN_FAILED, request.getUsername(), null, "bad_credentials");
+            throw e;
+        } catch (PasswordHashingBusyException e) {
+            authMetrics.recordLogin(start, LoginOutcome.BUSY);
+            throw e;
+        }
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
-        User user = userRepository.findByUsernameOrderById(request.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials."));
+        String token = jwtService.generateToken(user.getUsername(), user.getRoleNames());
+        String refreshToken = refreshTokenService.issue(user.getId());
 
-        if (!user.isActive()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User is inactive.");
+        authMetrics.recordLogin(start, LoginOutcome.SUCCESS);
+        // Só entra na fila do AuditLog — a gravação é em lote, fora desta requisição
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, user.getUsername(), user.getId(), null);
+        return new LoginResponse(token, user.getUsername(), refreshToken, jwtService.getAccessExpirationMs() / 1000);
+    }
+
+    /**
+     * Lista usuários paginando por cursor (id > afterId), com filtros opcionais.
+     * Duas queries curtas: ids da página (com LIMIT) e depois os usuários com as roles.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> listUsers(Long afterId, int limit, Boolean active, String role) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        // Busca um a mais só para saber se existe próxima página
+        List<Long> ids = userRepository.findPageIds(afterId == null ? 0 : afterId, active, role, PageRequest.ofSize(size + 1));
+        boolean hasMore = ids.size() > size;
+        if (hasMore) {
+            ids = ids.subList(0, size);
         }
 
-        List<String> roles = user.getRoles().stream()
-                .map(Role::getName)
+        List<UserResponse> items = ids.isEmpty() ? List.of() : userRepository.findByIdInOrderByIdAsc(ids).stream()
+                .map(UserResponse::from)
                 .toList();
 
-        String token = jwtService.generateToken(user.getUsername(), roles);
+        return new CursorPage<>(items, hasMore ? ids.get(ids.size() - 1) : null);
+    }
 
-        return new LoginResponse(token, user.getUsername());
+    /**
+     * Exporta os usuários um a um para o sink, na ordem do id, sem montar a lista em memória.
+     * As linhas usuário × role chegam ordenadas, então cada usuário é emitido assim que o id muda.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(Boolean active, String role, Consumer<UserResponse> sink) {
+        try (Stream<UserRoleRow> rows = userRepository.streamRows(active, role)) {
+            UserRoleRow current = null;
+            Set<RoleResponse> roles = new HashSet<>();
+
+            for (Iterator<UserRoleRow> it = rows.iterator(); it.hasNext(); ) {
+                UserRoleRow row = it.next();
+                if (current != null && !current.id().equals(row.id())) {
+                    sink.accept(toResponse(current, roles));
+                    roles = new HashSet<>();
+                }
+                current = row;
+                if (row.roleId() != null) {
+                    roles.add(new RoleResponse(row.roleId(), row.roleName()));
+                }
+            }
+
+            if (current != null) {
+                sink.accept(toResponse(current, roles));
+            }
+        }
     }
 
-    public List<UserResponse> getUsers(){
-        return userRepository.findAll().stream()
-                .map(user -> UserResponse.from(user))
-                .toList();
+    private static UserResponse toResponse(UserRoleRow row, Set<RoleResponse> roles) {
+        return new UserResponse(row.id(), row.username(), row.email(), row.active(), row.createdAt(), roles);
     }
 
     public List<RoleResponse> listAllRoles(){
-        return roleRepository.findAll().stream()
-                .map(role -> RoleResponse.from(role))
-                .toList();
+        return roleCatalog.all();
     }
 
-
+    @Transactional(readOnly = true)
     public List<RoleResponse> listRolesByUser(String username) {
 
-        User user = userRepository.findByUsernameOrderById(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found."));
+        List<RoleResponse> roles = roleRepository.findResponsesByUsername(username);
 
-        return user.getRoles().stream()
-                .map(RoleResponse::from)
-                .toList();
+        // Lista vazia pode ser usuário sem roles ou usuário inexistente — só nesse caso consulta de novo
+        if (roles.isEmpty() && !userRepository.existsByUsername(username)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found.");
+        }
+
+        return roles;
     }
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package com.prestobr.auth.service;
+
+import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.domain.entity.AuditEvent;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.dto.request.ApiKeyProvisionRequest;
+import com.prestobr.auth.dto.request.RegisterRequest;
+import com.prestobr.auth.dto.response.ApiKeyResponse;
+import com.prestobr.auth.dto.response.BulkItemResult;
+import com.prestobr.auth.dto.response.BulkResponse;
+import com.prestobr.auth.dto.response.UserResponse;
+import com.prestobr.auth.infra.audit.AuditLog;
+import com.prestobr.auth.infra.security.ApiKeyHasher;
+import com.prestobr.auth.infra.security.ApiKeyHasher.GeneratedApiKey;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache;
+import com.prestobr.auth.infra.security.BoundedPasswordEncoder;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.repository.ApiKeyRepository;
+import com.prestobr.auth.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro em massa de usuários e API Keys (onboarding de uma empresa cliente inteira).
+ *
+ * A requisição é processada em lotes de CHUNK_SIZE linhas:
+ *   1. Validação de cada linha (bean validation + duplicadas dentro da própria requisição)
+ *   2. Checagens contra o banco em uma query por lote (usernames, emails, donos) e roles no RoleCatalog
+ *   3. Hash das senhas em paralelo no pool do BoundedPasswordEncoder
+ *   4. INSERT do lote numa transação, em batch (ids por sequence, hibernate.jdbc.batch_size)
+ *
+ * Uma linha inválida não derruba as outras — o resultado vem por linha (BulkResponse).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkProvisioningService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final ApiKeyRepository apiKeyRepository;
+    private final RoleCatalog roleCatalog;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ApiKeyHasher apiKeyHasher;
+    private final ApiKeyPrincipalCache apiKeyPrincipalCache;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final AuditLog auditLog;
+
+    public BulkResponse<UserResponse> registerAll(List<RegisterRequest> rows) {
+        BulkItemResult<UserResponse>[] results = newResults(rows.size());
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, rows.size());
+
+            // 1. Linha a linha, sem banco
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                RegisterRequest row = rows.get(i);
+                String error = firstViolation(row);
+                if (error == null && !seenUsernames.add(row.getUsername())) {
+                    error = "Duplicate username in request: " + row.getUsername();
+                } else if (error == null && !seenEmails.add(row.getEmail())) {
+                    error = "Duplicate email in request: " + row.getEmail();
+                }
+
+                if (error != null) {
+                    results[i] = BulkItemResult.rejected(i, error);
+                } else {
+                    accepted.add(i);
+                }
+            }
+
+            // 2. Uma query por lote para usernames e emails; roles em memória
+            Set<String> existingUsernames = accepted.isEmpty() ? Set.of()
+                    : userRepository.findExistingUsernames(map(accepted, i -> rows.get(i).getUsername()));
+            Set<String> existingEmails = accepted.isEmpty() ? Set.of()
+                    : userRepository.findExistingEmails(map(accepted, i -> rows.get(i).getEmail()));
+            Set<String> unknownRoles = roleCatalog.unknown(accepted.stream()
+                    .flatMap(i -> roleNames(rows.get(i)).stream())
+                    .collect(Collectors.toSet()));
+
+            accepted.removeIf(i -> {
+                RegisterRequest row = rows.get(i);
+                String error = null;
+                if (existingUsernames.contains(row.getUsername())) {
+                    error = "Username already exists.";
+                } else if (existingEmails.contains(row.getEmail())) {
+                    error = "Email already exists.";
+                } else {
+                    String unknown = firstUnknownRole(roleNames(row), unknownRoles);
+                    if (unknown != null) {
+                        error = "Role not found: " + unknown;
+                    }
+                }
+
+                if (error != null) {
+                    results[i] = BulkItemResult.rejected(i, error);
+                    return true;
+                }
+                return false;
+            });
+
+            if (accepted.isEmpty()) {
+                continue;
+            }
+
+            // 3. Hash fora da transação — a conexão não fica presa enquanto o BCrypt roda
+            List<String> hashes = passwordEncoder.encodeAll(map(accepted, i -> rows.get(i).getPassword()));
+
+            // 4. INSERT em batch
+            List<PendingUser> pending = new ArrayList<>(accepted.size());
+            for (int k = 0; k < accepted.size(); k++) {
+                int index = accepted.get(k);
+                RegisterRequest row = rows.get(index);
+                pending.add(new PendingUser(index, row, hashes.get(k), roleCatalog.resolve(roleNames(row))));
+            }
+            insertUsers(pending, results);
+        }
+
+        return BulkResponse.of(Arrays.asList(results));
+    }
+
+    public BulkResponse<ApiKeyResponse> createApiKeys(List<ApiKeyProvisionRequest> rows) {
+        BulkItemResult<ApiKeyResponse>[] results = newResults(rows.size());
+
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, rows.size());
+
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                String error = firstViolation(rows.get(i));
+                if (error != null) {
+                    results[i] = BulkItemResult.rejected(i, error);
+                } else {
+                    accepted.add(i);
+                }
+            }
+
+            // Donos das chaves numa única query por lote
+            Map<String, User> owners = accepted.isEmpty() ? Map.of()
+                    : userRepository.findByUsernameIn(map(accepted, i -> rows.get(i).getUsername())).stream()
+                    .collect(Collectors.toMap(User::getUsername, Function.identity()));
+            Set<String> unknownRoles = roleCatalog.unknown(accepted.stream()
+                    .flatMap(i -> rows.get(i).getRoles().stream())
+                    .collect(Collectors.toSet()));
+
+            List<PendingApiKey> pending = new ArrayList<>(accepted.size());
+            for (int i : accepted) {
+                ApiKeyProvisionRequest row = rows.get(i);
+                User owner = owners.get(row.getUsername());
+                String unknown = firstUnknownRole(row.getRoles(), unknownRoles);
+
+                if (owner == null) {
+                    results[i] = BulkItemResult.rejected(i, "User not found: " + row.getUsername());
+                } else if (unknown != null) {
+                    results[i] = BulkItemResult.rejected(i, "Role not found: " + unknown);
+                } else {
+                    pending.add(new PendingApiKey(i, row, owner, roleCatalog.resolve(row.getRoles())));
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                insertApiKeys(pending, results);
+            }
+        }
+
+        return BulkResponse.of(Arrays.asList(results));
+    }
+
+    /**
+     * Grava o lote numa transação. Se outro cadastro usar o mesmo username/email entre a
+     * checagem e o INSERT, o lote inteiro falha — aí as linhas são regravadas uma a uma
+     * para recusar só as conflitantes.
+     */
+    private void insertUsers(List<PendingUser> pending, BulkItemResult<UserResponse>[] results) {
+        try {
+            List<User> users = pending.stream().map(PendingUser::toEntity).toList();
+            saveInTransaction(() -> userRepository.saveAllAndFlush(users));
+            for (int k = 0; k < pending.size(); k++) {
+                int index = pending.get(k).index();
+                results[index] = BulkItemResult.created(index, UserResponse.from(users.get(k)));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk register chunk hit a concurrent insert, retrying {} rows one by one", pending.size());
+            for (PendingUser row : pending) {
+                try {
+                    // Entidade nova — a da tentativa anterior já recebeu id da sequence
+                    User user = row.toEntity();
+                    saveInTransaction(() -> userRepository.saveAndFlush(user));
+                    results[row.index()] = BulkItemResult.created(row.index(), UserResponse.from(user));
+                } catch (DataIntegrityViolationException rowError) {
+                    results[row.index()] = BulkItemResult.rejected(row.index(), "Username or email already exists.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Mesmo esquema do insertUsers. O prefixo aleatório praticamente nunca colide, então uma falha
+     * aqui é o dono apagado entre a busca e o INSERT (FK) — sem o retry por linha, o lote inteiro
+     * viraria 500 e as chaves dos lotes já gravados nunca chegariam ao cliente.
+     */
+    private void insertApiKeys(List<PendingApiKey> pending, BulkItemResult<ApiKeyResponse>[] results) {
+        List<GeneratedApiKey> generated = pending.stream().map(row -> apiKeyHasher.generate()).toList();
+        List<ApiKey> apiKeys = new ArrayList<>(pending.size());
+        for (int k = 0; k < pending.size(); k++) {
+            apiKeys.add(pending.get(k).toEntity(generated.get(k)));
+        }
+
+        try {
+            saveInTransaction(() -> apiKeyRepository.saveAllAndFlush(apiKeys));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk API key chunk failed on insert, retrying {} rows one by one", pending.size());
+            for (PendingApiKey row : pending) {
+                try {
+                    // Entidade e chave novas — a da tentativa anterior já recebeu id da sequence
+                    GeneratedApiKey key = apiKeyHasher.generate();
+                    ApiKey apiKey = row.toEntity(key);
+                    saveInTransaction(() -> apiKeyRepository.saveAndFlush(apiKey));
+                    created(row.index(), apiKey, key, results);
+                } catch (DataIntegrityViolationException rowError) {
+                    results[row.index()] = BulkItemResult.rejected(row.index(), "User not found: " + row.row().getUsername());
+                }
+            }
+            return;
+        }
+
+        for (int k = 0; k < pending.size(); k++) {
+            created(pending.get(k).index(), apiKeys.get(k), generated.get(k), results);
+        }
+    }
+
+    private void created(int index, ApiKey apiKey, GeneratedApiKey generated, BulkItemResult<ApiKeyResponse>[] results) {
+        apiKeyPrincipalCache.put(apiKey);
+        auditLog.record(AuditEvent.Type.API_KEY_CREATED, apiKey.getUser().getUsername(), apiKey.getId(),
+                AuditLog.roleNames(apiKey.getRoles()));
+        results[index] = BulkItemResult.created(index, ApiKeyResponse.from(apiKey, generated.rawKey()));
+    }
+
+    // clear no fim de cada lote (depois do flush): o persistence context não cresce com o tamanho da importação
+    private void saveInTransaction(Runnable save) {
+        transactionTemplate.executeWithoutResult(status -> {
+            save.run();
+            entityManager.clear();
+        });
+    }
+
+    // Primeira violação de bean validation da linha, como "campo: mensagem" (null se válida)
+    private String firstViolation(Object row) {
+        if (row == null) {
+            return "Empty row";
+        }
+        return validator.validate(row).stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .findFirst()
+                .map(this::describe)
+                .orElse(null);
+    }
+
+    private String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private static Set<String> roleNames(RegisterRequest row) {
+        return row.getRoles() == null ? Set.of() : row.getRoles();
+    }
+
+    private static String firstUnknownRole(Collection<String> roleNames, Set<String> unknownRoles) {
+        if (unknownRoles.isEmpty()) {
+            return null;
+        }
+        return roleNames.stream().filter(unknownRoles::contains).findFirst().orElse(null);
+    }
+
+    private static <T> List<T> map(List<Integer> indexes, Function<Integer, T> mapper) {
+        return indexes.stream().map(mapper).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BulkItemResult<T>[] newResults(int size) {
+        return new BulkItemResult[size];
+    }
+
+    private record PendingUser(int index, RegisterRequest row, String passwordHash, Set<Role> roles) {
+
+        User toEntity() {
+            return User.builder()
+                    .username(row.getUsername())
+                    .email(row.getEmail())
+                    .password(passwordHash)
+                    .roles(new HashSet<>(roles))
+                    .build();
+        }
+    }
+
+    private record PendingApiKey(int index, ApiKeyProvisionRequest row, User owner, Set<Role> roles) {
+
+        // Formato "pb_<prefixo>_<segredo>" — só o HMAC do segredo é gravado
+        ApiKey toEntity(GeneratedApiKey generated) {
+            return ApiKey.builder()
+                    .keyHash(generated.keyHash())
+                    .keyPrefix(generated.prefix())
+                    .description(row.getDescription())
+                    .user(owner)
+                    .roles(roles)
+                    .expiresAt(row.getExpiresAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.prestobr.auth.service;
+
+import com.prestobr.auth.dto.request.IntrospectionRequest;
+import com.prestobr.auth.dto.response.IntrospectionResponse;
+import com.prestobr.auth.infra.security.ApiKeyVerifier;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.TokenRevocationList;
+import com.prestobr.auth.infra.security.VerifiedTokenCache;
+import com.prestobr.auth.infra.security.VerifiedTokenCache.CachedPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Introspecção de tokens e API Keys (RFC 7662) para serviços que não têm o jwt.secret.
+ *
+ * Mesma verificação dos filtros, só em memória:
+ *   - JWT: VerifiedTokenCache (parse e assinatura uma vez por token) + TokenRevocationList
+ *   - API Key: ApiKeyVerifier (índice de chaves ou assinatura da chave)
+ *
+ * Um lote de centenas de credenciais é resolvido sem I/O — a maior parte já está no cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class IntrospectionService {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final ApiKeyVerifier apiKeyVerifier;
+    private final RoleCatalog roleCatalog;
+
+    public IntrospectionResponse introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return IntrospectionResponse.inactive();
+        }
+        if (apiKeyVerifier.isSigned(token)) {
+            return introspectSignedApiKey(token);
+        }
+        if (token.startsWith("pb_")) {
+            return introspectApiKey(token);
+        }
+        return introspectAccessToken(token);
+    }
+
+    public List<IntrospectionResponse> introspectAll(List<IntrospectionRequest> requests) {
+        return requests.stream()
+                .map(request -> introspect(request.getToken()))
+                .toList();
+    }
+
+    private IntrospectionResponse introspectAccessToken(String token) {
+        long now = Instant.now().getEpochSecond();
+        return verifiedTokenCache.resolve(token)
+                // O cache descarta a entrada no "exp", mas não no segundo exato
+                .filter(principal -> principal.expiresAt().getEpochSecond() > now)
+                .filter(principal -> !tokenRevocationList.isRevoked(principal.jti(), principal.subject(), principal.issuedAtEpochSec()))
+                .map(this::toResponse)
+                .orElse(IntrospectionResponse.inactive());
+    }
+
+    private IntrospectionResponse toResponse(CachedPrincipal principal) {
+        return IntrospectionResponse.active(
+                IntrospectionResponse.ACCESS_TOKEN,
+                principal.subject(),
+                roleNames(principal.authentication().getAuthorities()),
+                principal.expiresAt().getEpochSecond(),
+                principal.issuedAtEpochSec(),
+                principal.jti() == null ? null : principal.jti().toString()
+        );
+    }
+
+    private IntrospectionResponse introspectSignedApiKey(String rawKey) {
+        return apiKeyVerifier.verifySigned(rawKey)
+                .map(key -> IntrospectionResponse.active(
+                        IntrospectionResponse.API_KEY,
+                        key.username(),
+                        roleNames(roleCatalog.authorities(key.roleMask())),
+                        key.expiresAtEpochSec() == 0 ? null : key.expiresAtEpochSec(),
+                        null,
+                        null))
+                .orElse(IntrospectionResponse.inactive());
+    }
+
+    private IntrospectionResponse introspectApiKey(String rawKey) {
+        return apiKeyVerifier.verify(rawKey)
+                .map(key -> IntrospectionResponse.active(
+                        IntrospectionResponse.API_KEY,
+                        key.username(),
+                        roleNames(key.authentication().getAuthorities()),
+                        key.expiresAt() == null ? null : key.expiresAt().atZone(ZoneId.systemDefault()).toEpochSecond(),
+                        null,
+                        null))
+                .orElse(IntrospectionResponse.inactive());
+    }
+
+    // "ROLE_FISCAL_READ" → "FISCAL_READ", mesmo formato da claim "roles"
+    private static List<String> roleNames(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+                .toList();
+    }
+}
@@ -0,0 +1,165 @@
+package com.prestobr.auth.service;
+
+import com.prestobr.auth.domain.entity.RefreshToken;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.dto.response.LoginResponse;
+import com.prestobr.auth.infra.security.JwtService;
+import com.prestobr.auth.repository.RefreshTokenRepository;
+import com.prestobr.auth.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Emite e rotaciona refresh tokens.
+ *
+ * O access token (JWT) tem vida curta (jwt.access-expiration-ms, 15 min); o refresh token, opaco e guardado
+ * no servidor, permite obter um novo sem refazer login — e sem BCrypt.
+ *
+ *   - Cada refresh consome o token apresentado e devolve um novo na mesma família
+ *   - Token já usado ou revogado apresentado de novo = reuso (token vazado): a família inteira é revogada
+ *   - Só o SHA-256 do token é gravado
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration-ms:2592000000}") // 30 dias em milisegundos
+    private long refreshExpirationMs;
+
+    // Abre uma nova família de refresh tokens — chamado no login
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId), UUID.randomUUID());
+    }
+
+    /**
+     * Troca um refresh token válido por um novo par access + refresh.
+     *
+     *   1. Localiza o token pelo hash
+     *   2. Já usado/revogado → reuso: revoga a família e recusa
+     *   3. Consome o token (update atômico — dois refreshes simultâneos do mesmo token = reuso)
+     *   4. Verifica se o usuário continua ativo
+     *   5. Emite o próximo token da família e um novo access token com as roles atuais
+     */
+    @Transactional(noRollbackFor = ResponseStatusException.class) // a revogação da família precisa ser gravada
+    public LoginResponse refresh(String rawToken) {
+
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token."));
+
+        if (current.isRevoked() || current.getUsedAt() != null) {
+            revokeFamily(current, "reuse detected");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired.");
+        }
+
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            revokeFamily(current, "concurrent reuse");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token.");
+        }
+
+        User user = current.getUser();
+        if (!user.isActive()) {
+            revokeFamily(current, "user inactive");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token.");
+        }
+
+        List<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+
+        String accessToken = jwtService.generateToken(user.getUsername(), roles);
+        String refreshToken = issue(user, current.getFamilyId());
+
+        return new LoginResponse(accessToken, user.getUsername(), refreshToken, jwtService.getAccessExpirationMs() / 1000);
+    }
+
+    /**
+     * Revoga a sessão no logout.
+     *
+     * Com o refresh token da sessão, só a família dele. Sem ele (ou com um token que não é do usuário),
+     * todas as famílias ativas do usuário — o access token não diz de qual família veio.
+     */
+    @Transactional
+    public void revokeOnLogout(String username, String rawToken) {
+        RefreshToken session = rawToken == null ? null : refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .filter(token -> token.getUser().getUsername().equals(username))
+                .orElse(null);
+
+        if (session != null) {
+            refreshTokenRepository.revokeFamily(session.getFamilyId());
+        } else {
+            refreshTokenRepository.revokeAllByUsername(username);
+        }
+    }
+
+    // Remove tokens expirados — não servem mais nem para detectar reuso
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .user(user)
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs)))
+                .build());
+
+        return rawToken;
+    }
+
+    private void revokeFamily(RefreshToken token, String reason) {
+        refreshTokenRepository.revokeFamily(token.getFamilyId());
+        log.warn("Refresh token family {} revoked: {}", token.getFamilyId(), reason);
+    }
+
+    // Token tem 256 bits aleatórios — SHA-256 simples basta, sem salt nem hash lento
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Role dos serviços que podem chamar /v1/auth/introspect (gateways, serviços internos).
+-- Sem ela (ou ADMIN), um token de usuário comum não consegue sondar credenciais alheias.
+INSERT INTO roles (name) VALUES ('INTROSPECT')
+ON CONFLICT (name) DO NOTHING;
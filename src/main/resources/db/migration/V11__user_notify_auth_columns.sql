@@ -0,0 +1,16 @@
+-- O trigger de V3 notificava todo UPDATE em users, inclusive rehash de senha e outras
+-- colunas que nenhum cache guarda, gerando invalidações e ressincronizações à toa.
+-- O Hibernate reescreve todas as colunas no UPDATE, então "UPDATE OF" sozinho não basta:
+-- o WHEN compara os valores e só notifica quando username ou active mudaram de fato.
+
+DROP TRIGGER users_notify_change ON users;
+
+CREATE TRIGGER users_notify_change
+    AFTER INSERT OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION notify_user_change();
+
+CREATE TRIGGER users_notify_auth_update
+    AFTER UPDATE OF username, active ON users
+    FOR EACH ROW
+    WHEN (OLD.username IS DISTINCT FROM NEW.username OR OLD.active IS DISTINCT FROM NEW.active)
+    EXECUTE FUNCTION notify_user_change();
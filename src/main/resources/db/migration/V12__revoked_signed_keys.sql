@@ -0,0 +1,26 @@
+-- Revogação de chaves assinadas independente da linha de api_keys.
+-- A chave assinada carrega dono e roles e o MAC continua válido mesmo sem a linha: apagar a chave
+-- (DELETE direto ou ON DELETE CASCADE ao apagar o usuário) precisa deixá-la revogada até o expires_at dela.
+-- expires_at nulo = chave sem expiração, revogação permanente. Linhas expiradas são apagadas pelo serviço.
+CREATE TABLE revoked_signed_keys (
+    api_key_id BIGINT    PRIMARY KEY,
+    expires_at TIMESTAMP,
+    revoked_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE OR REPLACE FUNCTION revoke_deleted_signed_key() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO revoked_signed_keys (api_key_id, expires_at)
+    VALUES (OLD.id, OLD.expires_at)
+    ON CONFLICT (api_key_id) DO NOTHING;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- BEFORE: a linha de revogação entra na mesma transação do DELETE, antes do NOTIFY do V3
+-- (api_keys_notify_change) chegar aos outros nós
+CREATE TRIGGER api_keys_revoke_deleted_signed
+    BEFORE DELETE ON api_keys
+    FOR EACH ROW
+    WHEN (OLD.signed)
+    EXECUTE FUNCTION revoke_deleted_signed_key();
@@ -0,0 +1,39 @@
+-- Desativar (ou apagar) um usuário revoga os JWTs dele já emitidos — não só os caches locais.
+-- O JwtAuthFilter não consulta o banco: sem isso, um access token emitido antes da desativação
+-- continuaria valendo até o "exp". A linha em revoked_subjects dispara o NOTIFY de V5 para todos os nós.
+--
+--   revoked_before: +1 segundo — o "iat" tem só segundos e o TokenRevocationList compara com "<";
+--                   usuário inativo não recebe token novo (login e refresh recusam), então nada legítimo se perde
+--   expires_at:     30 dias — o SQL não enxerga jwt.expiration-ms; cobre com folga a maior validade de token emitida
+
+CREATE OR REPLACE FUNCTION revoke_deactivated_user() RETURNS TRIGGER AS $$
+DECLARE
+    row_data users;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        row_data := OLD;
+    ELSE
+        row_data := NEW;
+    END IF;
+
+    INSERT INTO revoked_subjects (username, revoked_before, expires_at)
+    VALUES (row_data.username, now() + INTERVAL '1 second', now() + INTERVAL '30 days')
+    ON CONFLICT (username) DO UPDATE
+        SET revoked_before = GREATEST(revoked_subjects.revoked_before, EXCLUDED.revoked_before),
+            expires_at     = GREATEST(revoked_subjects.expires_at, EXCLUDED.expires_at);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_revoke_on_deactivate
+    AFTER UPDATE OF active ON users
+    FOR EACH ROW
+    WHEN (OLD.active AND NOT NEW.active)
+    EXECUTE FUNCTION revoke_deactivated_user();
+
+CREATE TRIGGER users_revoke_on_delete
+    AFTER DELETE ON users
+    FOR EACH ROW
+    WHEN (OLD.active)
+    EXECUTE FUNCTION revoke_deactivated_user();
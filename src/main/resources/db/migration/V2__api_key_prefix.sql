@@ -0,0 +1,7 @@
+-- API Keys passam a ter o formato "pb_<prefixo>_<segredo>".
+-- O prefixo é público e indexado (lookup direto); o segredo é guardado como HMAC-SHA256 em key_hash.
+ALTER TABLE api_keys ADD COLUMN key_prefix VARCHAR(32) UNIQUE;
+
+-- Chaves antigas foram gravadas com BCrypt (sem prefixo) e nunca puderam ser localizadas por hash.
+-- Ficam inativas — precisam ser recriadas no novo formato.
+UPDATE api_keys SET active = FALSE WHERE key_prefix IS NULL;
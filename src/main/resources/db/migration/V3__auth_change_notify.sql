@@ -0,0 +1,97 @@
+-- Publica no canal "auth_changes" toda alteração que afeta autenticação/autorização.
+-- Cada réplica do serviço escuta o canal (LISTEN) e remove dos caches locais só o que mudou.
+--
+-- Payload (JSON):
+--   {"entity": "user",    "id": <user_id>,    "username": "<username>"}
+--   {"entity": "api_key", "id": <api_key_id>}
+--
+-- O NOTIFY só é entregue no commit, e payloads idênticos na mesma transação são
+-- enviados uma única vez (ex.: updateRoles trocando várias roles gera um só evento).
+
+CREATE OR REPLACE FUNCTION notify_user_change() RETURNS TRIGGER AS $$
+DECLARE
+    row_data users;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        row_data := OLD;
+    ELSE
+        row_data := NEW;
+    END IF;
+
+    PERFORM pg_notify('auth_changes', json_build_object(
+            'entity', 'user',
+            'id', row_data.id,
+            'username', row_data.username)::text);
+
+    -- Username alterado: o nome antigo também precisa sair dos caches
+    IF TG_OP = 'UPDATE' AND OLD.username <> NEW.username THEN
+        PERFORM pg_notify('auth_changes', json_build_object(
+                'entity', 'user',
+                'id', OLD.id,
+                'username', OLD.username)::text);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_user_roles_change() RETURNS TRIGGER AS $$
+DECLARE
+    changed_user_id BIGINT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed_user_id := OLD.user_id;
+    ELSE
+        changed_user_id := NEW.user_id;
+    END IF;
+
+    PERFORM pg_notify('auth_changes', json_build_object(
+            'entity', 'user',
+            'id', u.id,
+            'username', u.username)::text)
+    FROM users u
+    WHERE u.id = changed_user_id;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_api_key_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('auth_changes', json_build_object('entity', 'api_key', 'id', OLD.id)::text);
+    ELSE
+        PERFORM pg_notify('auth_changes', json_build_object('entity', 'api_key', 'id', NEW.id)::text);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_api_key_roles_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('auth_changes', json_build_object('entity', 'api_key', 'id', OLD.api_key_id)::text);
+    ELSE
+        PERFORM pg_notify('auth_changes', json_build_object('entity', 'api_key', 'id', NEW.api_key_id)::text);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION notify_user_change();
+
+CREATE TRIGGER user_roles_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON user_roles
+    FOR EACH ROW EXECUTE FUNCTION notify_user_roles_change();
+
+CREATE TRIGGER api_keys_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON api_keys
+    FOR EACH ROW EXECUTE FUNCTION notify_api_key_change();
+
+CREATE TRIGGER api_key_roles_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON api_key_roles
+    FOR EACH ROW EXECUTE FUNCTION notify_api_key_roles_change();
@@ -0,0 +1,16 @@
+-- Refresh tokens rotativos. Cada login abre uma "família"; cada refresh consome o token atual
+-- (used_at) e emite o próximo na mesma família. Um token já usado apresentado de novo indica
+-- vazamento — a família inteira é revogada.
+CREATE TABLE refresh_tokens (
+    id         BIGSERIAL PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL UNIQUE, -- SHA-256 (hex) do token; o token em si nunca é gravado
+    family_id  UUID        NOT NULL,
+    user_id    BIGINT      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    created_at TIMESTAMP   NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMP   NOT NULL,
+    used_at    TIMESTAMP,
+    revoked    BOOLEAN     NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,48 @@
+-- Revogação de tokens JWT antes do "exp".
+--   revoked_tokens:   um token específico, pelo "jti" (ex.: logout)
+--   revoked_subjects: todos os tokens de um usuário emitidos até revoked_before (ex.: roles alteradas)
+-- Cada linha só precisa existir até o token mais longo que ela afeta expirar (expires_at);
+-- depois disso é apagada automaticamente pelo serviço.
+CREATE TABLE revoked_tokens (
+    jti        UUID        PRIMARY KEY,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+CREATE TABLE revoked_subjects (
+    username       VARCHAR(100) PRIMARY KEY,
+    revoked_before TIMESTAMPTZ  NOT NULL,
+    expires_at     TIMESTAMPTZ  NOT NULL
+);
+
+-- Propaga revogações para todas as réplicas (mesmo canal do V3)
+CREATE OR REPLACE FUNCTION notify_token_revocation() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('auth_changes', json_build_object(
+            'entity', 'revoked_token',
+            'jti', NEW.jti,
+            'expires_at', floor(extract(epoch FROM NEW.expires_at))::bigint)::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_subject_revocation() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('auth_changes', json_build_object(
+            'entity', 'revoked_subject',
+            'username', NEW.username,
+            'revoked_before', floor(extract(epoch FROM NEW.revoked_before))::bigint,
+            'expires_at', floor(extract(epoch FROM NEW.expires_at))::bigint)::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER revoked_tokens_notify
+    AFTER INSERT ON revoked_tokens
+    FOR EACH ROW EXECUTE FUNCTION notify_token_revocation();
+
+CREATE TRIGGER revoked_subjects_notify
+    AFTER INSERT OR UPDATE ON revoked_subjects
+    FOR EACH ROW EXECUTE FUNCTION notify_subject_revocation();
@@ -0,0 +1,21 @@
+-- Avisa as réplicas quando o catálogo de roles muda (mesmo canal do V3).
+-- O catálogo é pequeno: o serviço recarrega a tabela inteira a cada evento.
+--
+-- Payload (JSON):
+--   {"entity": "role", "id": <role_id>}
+
+CREATE OR REPLACE FUNCTION notify_role_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('auth_changes', json_build_object('entity', 'role', 'id', OLD.id)::text);
+    ELSE
+        PERFORM pg_notify('auth_changes', json_build_object('entity', 'role', 'id', NEW.id)::text);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER roles_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON roles
+    FOR EACH ROW EXECUTE FUNCTION notify_role_change();
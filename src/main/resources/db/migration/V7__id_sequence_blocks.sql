@@ -0,0 +1,6 @@
+-- users e api_keys passam a usar ids alocados em blocos de 50 pelo Hibernate (pooled optimizer),
+-- o que permite INSERTs em batch — com IDENTITY cada linha exige um round-trip para obter o id.
+-- O INCREMENT precisa ser igual ao allocationSize das entidades (User e ApiKey).
+-- O DEFAULT nextval() das colunas continua valendo para INSERTs feitos direto no banco.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE api_keys_id_seq INCREMENT BY 50;
@@ -0,0 +1,7 @@
+-- API Keys assinadas ("pbs_<payload>.<mac>"): verificadas só pelo HMAC, sem lookup por prefixo.
+-- Continuam gravadas aqui para listagem e revogação; key_prefix fica nulo e key_hash guarda o
+-- HMAC da chave inteira.
+ALTER TABLE api_keys ADD COLUMN signed BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Carga das assinadas revogadas na inicialização de cada nó
+CREATE INDEX idx_api_keys_signed ON api_keys (id) WHERE signed;
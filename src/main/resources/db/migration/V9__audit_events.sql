@@ -0,0 +1,49 @@
+-- Trilha de auditoria: logins (com e sem sucesso), criação/revogação de API Keys e mudanças de roles.
+-- Gravada em lotes pelo AuditLog, fora do caminho da requisição.
+--
+-- Particionada por mês (occurred_at, UTC): consultas por período só leem as partições do intervalo
+-- e expurgar um mês antigo é um DROP TABLE, sem DELETE em massa.
+--   - audit_events_create_partition(mês) cria a partição do mês; o serviço garante a do mês
+--     atual e a do seguinte periodicamente (AuditLog.ensurePartitions)
+--   - audit_events_default recebe o que cair fora das partições existentes — o INSERT nunca falha
+--     por falta de partição. Com linhas lá dentro, a partição daquele mês não pode mais ser criada.
+--
+-- Ids em blocos de 50 (mesmo esquema do V7) para os INSERTs em batch.
+-- A PK precisa conter a chave de partição; o id na frente serve a paginação por cursor (id > afterId).
+CREATE SEQUENCE audit_events_id_seq INCREMENT BY 50;
+
+CREATE TABLE audit_events (
+    id          BIGINT       NOT NULL DEFAULT nextval('audit_events_id_seq'),
+    occurred_at TIMESTAMPTZ  NOT NULL,
+    type        VARCHAR(40)  NOT NULL,
+    username    VARCHAR(100),
+    actor       VARCHAR(100),
+    target_id   BIGINT,
+    ip          VARCHAR(45),
+    detail      TEXT,
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+CREATE INDEX idx_audit_events_username ON audit_events (username, id);
+
+CREATE TABLE audit_events_default PARTITION OF audit_events DEFAULT;
+
+CREATE OR REPLACE FUNCTION audit_events_create_partition(month DATE) RETURNS TEXT AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month)::date;
+    partition TEXT := 'audit_events_' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_events FOR VALUES FROM (%L) TO (%L)',
+                   partition,
+                   first_day::timestamp AT TIME ZONE 'UTC',
+                   (first_day + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+    RETURN partition;
+EXCEPTION
+    -- Outro nó criou a mesma partição ao mesmo tempo
+    WHEN duplicate_table OR unique_violation THEN
+        RETURN partition;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT audit_events_create_partition(CURRENT_DATE);
+SELECT audit_events_create_partition((CURRENT_DATE + INTERVAL '1 month')::date);
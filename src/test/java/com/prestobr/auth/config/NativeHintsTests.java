@@ -0,0 +1,40 @@
+package com.prestobr.auth.config;
+
+import com.prestobr.auth.repository.projection.UserRoleRow;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeHintsTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@Test
+	void registersJjwtImplementationsAndProjectionConstructors() {
+		new NativeHints.Registrar().registerHints(hints, getClass().getClassLoader());
+
+		// O que o jjwt-api de fato carrega por nome
+		assertTrue(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of(Jwts.builder().getClass()))
+				.test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of(Jwts.SIG.get().getClass()))
+				.test(hints));
+
+		assertTrue(RuntimeHintsPredicates.reflection()
+				.onConstructor(UserRoleRow.class.getConstructors()[0])
+				.test(hints));
+	}
+
+	@Test
+	void everyJjwtImplementationExists() {
+		// Nome que sumir numa atualização do JJWT quebraria só na imagem nativa
+		for (String type : NativeHints.JJWT_IMPLEMENTATIONS) {
+			assertDoesNotThrow(() -> Class.forName(type), type);
+		}
+	}
+}
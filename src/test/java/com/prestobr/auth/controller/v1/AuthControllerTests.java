@@ -0,0 +1,48 @@
+package com.prestobr.auth.controller.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.dto.request.RefreshRequest;
+import com.prestobr.auth.service.AuthService;
+import com.prestobr.auth.service.BulkProvisioningService;
+import com.prestobr.auth.service.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuthControllerTests {
+
+	private final AuthService authService = mock(AuthService.class);
+	private final AuthController controller = new AuthController(authService, mock(RefreshTokenService.class),
+			mock(BulkProvisioningService.class), new ObjectMapper());
+
+	@Test
+	void logoutRevokesTheBearerToken() {
+		controller.logout("Bearer abc.def.ghi", null);
+
+		verify(authService).logout("abc.def.ghi", null);
+	}
+
+	@Test
+	void logoutPassesTheSessionRefreshToken() {
+		RefreshRequest request = new ObjectMapper().convertValue(Map.of("refreshToken", "r1"), RefreshRequest.class);
+
+		controller.logout("Bearer abc.def.ghi", request);
+
+		verify(authService).logout("abc.def.ghi", "r1");
+	}
+
+	@Test
+	void logoutWithoutBearerTokenIsBadRequest() {
+		for (String header : new String[]{null, "", "Bear", "Basic dXNlcjpwYXNz"}) {
+			ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> controller.logout(header, null));
+			assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+		}
+		verify(authService, never()).logout(any(), any());
+	}
+}
@@ -0,0 +1,120 @@
+package com.prestobr.auth.infra.audit;
+
+import com.prestobr.auth.domain.entity.AuditEvent;
+import com.prestobr.auth.repository.AuditEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogTests {
+
+	private final AuditEventRepository repository = mock(AuditEventRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	// Cópia de cada lote gravado — o AuditLog reaproveita a lista
+	private final List<List<AuditEvent>> batches = new ArrayList<>();
+
+	// Sem start(): os testes chamam drain() direto, no lugar da thread audit-writer
+	private final AuditLog auditLog = new AuditLog(repository, transactionTemplate, meterRegistry, true, 4, 3, 200);
+
+	AuditLogTests() {
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+		when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+			batches.add(List.copyOf(invocation.<List<AuditEvent>>getArgument(0)));
+			return invocation.getArgument(0);
+		});
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void writesInBatchesAndCountsDroppedEvents() {
+		for (int i = 0; i < 6; i++) {
+			auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "user" + i, (long) i, null);
+		}
+		assertEquals(4, auditLog.pending());
+
+		List<AuditEvent> batch = new ArrayList<>();
+		assertEquals(3, auditLog.drain(batch));
+		assertEquals(1, auditLog.drain(batch));
+		assertEquals(0, auditLog.drain(batch));
+
+		assertEquals(List.of(3, 1), batches.stream().map(List::size).toList());
+		assertEquals("user0", batches.get(0).get(0).getUsername());
+		assertEquals(4, count("written"));
+		assertEquals(2, count("dropped"));
+	}
+
+	@Test
+	void failedBatchIsCountedAndDiscarded() {
+		when(repository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+		auditLog.record(AuditEvent.Type.API_KEY_REVOKED, "maria", 7L, null);
+
+		assertEquals(1, auditLog.drain(new ArrayList<>()));
+		assertEquals(0, auditLog.pending());
+		assertEquals(1, count("failed"));
+		assertEquals(0, count("written"));
+	}
+
+	@Test
+	void actorComesFromSecurityContextAndLongValuesAreTruncated() {
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of()));
+
+		auditLog.record(AuditEvent.Type.USER_ROLES_CHANGED, "x".repeat(500), 1L, "ADMIN,USER");
+		auditLog.drain(new ArrayList<>());
+
+		AuditEvent event = batches.get(0).get(0);
+		assertEquals("admin", event.getActor());
+		assertEquals(100, event.getUsername().length());
+		assertEquals("ADMIN,USER", event.getDetail());
+		assertNotNull(event.getOccurredAt());
+	}
+
+	@Test
+	void eventInsideTransactionIsQueuedOnlyAfterCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		auditLog.record(AuditEvent.Type.API_KEY_CREATED, "maria", 10L, "ADMIN");
+		assertEquals(0, auditLog.pending());
+
+		// Commit: entra na fila
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertEquals(1, auditLog.pending());
+		TransactionSynchronizationManager.clearSynchronization();
+
+		// Rollback: nenhum evento de uma chave que não foi gravada
+		TransactionSynchronizationManager.initSynchronization();
+		auditLog.record(AuditEvent.Type.API_KEY_CREATED, "maria", 11L, "ADMIN");
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		assertEquals(1, auditLog.pending());
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("audit.events").tag("result", result).counter().count();
+	}
+}
@@ -0,0 +1,76 @@
+package com.prestobr.auth.infra.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTests {
+
+	@Test
+	void fullBufferRejectsUntilDrained() {
+		// 3 → arredondado para 4
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(3);
+		assertEquals(4, buffer.capacity());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+		assertEquals(4, buffer.size());
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(3, buffer.drainTo(drained, 3));
+		assertEquals(List.of(0, 1, 2), drained);
+
+		// Posições liberadas voltam a valer na volta seguinte do anel
+		assertTrue(buffer.offer(5));
+		assertTrue(buffer.offer(6));
+		assertEquals(3, buffer.drainTo(drained, 10));
+		assertEquals(List.of(0, 1, 2, 3, 5, 6), drained);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void concurrentProducersNeverLoseOrDuplicate() throws Exception {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(1024);
+		int producers = 8;
+		int perProducer = 20_000;
+		AtomicInteger rejected = new AtomicInteger();
+
+		Set<Integer> received = new HashSet<>();
+		List<Integer> batch = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int base = p * perProducer;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < perProducer; i++) {
+						if (!buffer.offer(base + i)) {
+							rejected.incrementAndGet();
+						}
+					}
+				}));
+			}
+
+			// Consumidor único nesta thread enquanto os produtores rodam
+			while (!futures.stream().allMatch(Future::isDone) || buffer.size() > 0) {
+				buffer.drainTo(batch, 256);
+				for (Integer value : batch) {
+					assertTrue(received.add(value), "duplicated " + value);
+				}
+				batch.clear();
+			}
+		}
+
+		assertEquals(producers * perProducer, received.size() + rejected.get());
+	}
+}
@@ -0,0 +1,93 @@
+package com.prestobr.auth.infra.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.infra.datasource.RecentWriters;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.TokenRevocationList;
+import com.prestobr.auth.infra.security.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+// Payloads iguais aos gerados pelos triggers de V3__auth_change_notify.sql
+class AuthCacheInvalidatorTests {
+
+	private VerifiedTokenCache verifiedTokenCache;
+	private ApiKeyPrincipalCache apiKeyPrincipalCache;
+	private TokenRevocationList tokenRevocationList;
+	private RoleCatalog roleCatalog;
+	private RecentWriters recentWriters;
+	private AuthCacheInvalidator invalidator;
+
+	@BeforeEach
+	void setUp() {
+		verifiedTokenCache = mock(VerifiedTokenCache.class);
+		apiKeyPrincipalCache = mock(ApiKeyPrincipalCache.class);
+		tokenRevocationList = mock(TokenRevocationList.class);
+		roleCatalog = mock(RoleCatalog.class);
+		recentWriters = new RecentWriters(5000);
+		invalidator = new AuthCacheInvalidator(new ObjectMapper(), verifiedTokenCache, apiKeyPrincipalCache, tokenRevocationList, roleCatalog, recentWriters);
+	}
+
+	@Test
+	void userChangeEvictsTokensAndReloadsUserKeys() {
+		invalidator.handle("{\"entity\" : \"user\", \"id\" : 7, \"username\" : \"maria\"}");
+
+		verify(verifiedTokenCache).invalidateSubject("maria");
+		verify(apiKeyPrincipalCache).refreshUser(7L);
+		verifyNoMoreInteractions(verifiedTokenCache, apiKeyPrincipalCache);
+		verifyNoInteractions(tokenRevocationList);
+		// Próximo login dele lê do primário, mesmo que a alteração tenha sido feita em outro nó
+		assertTrue(recentWriters.contains("maria"));
+	}
+
+	@Test
+	void apiKeyChangeReloadsOnlyThatKey() {
+		invalidator.handle("{\"entity\" : \"api_key\", \"id\" : 42}");
+
+		verify(apiKeyPrincipalCache).refresh(42L);
+		verifyNoMoreInteractions(verifiedTokenCache, apiKeyPrincipalCache);
+	}
+
+	@Test
+	void tokenRevocationIsAppliedWithoutDatabase() {
+		invalidator.handle("{\"entity\" : \"revoked_token\", \"jti\" : \"6f1c2a47-3c55-4d1e-9b59-7d0c1f0e8a11\", \"expires_at\" : 1790000000}");
+		invalidator.handle("{\"entity\" : \"revoked_subject\", \"username\" : \"maria\", \"revoked_before\" : 1780000000, \"expires_at\" : 1790000000}");
+
+		verify(tokenRevocationList).applyRevokedToken(UUID.fromString("6f1c2a47-3c55-4d1e-9b59-7d0c1f0e8a11"), 1790000000L);
+		verify(tokenRevocationList).applyRevokedSubject("maria", 1780000000L, 1790000000L);
+		verifyNoInteractions(verifiedTokenCache, apiKeyPrincipalCache);
+	}
+
+	@Test
+	void malformedPayloadIsIgnored() {
+		invalidator.handle("not json");
+		invalidator.handle("{\"entity\" : \"group\", \"id\" : 1}");
+
+		verifyNoInteractions(verifiedTokenCache, apiKeyPrincipalCache, tokenRevocationList, roleCatalog);
+	}
+
+	// Payload de V6__role_change_notify.sql
+	@Test
+	void roleChangeReloadsCatalogOnly() {
+		invalidator.handle("{\"entity\" : \"role\", \"id\" : 1}");
+
+		verify(roleCatalog).reload();
+		verifyNoInteractions(verifiedTokenCache, apiKeyPrincipalCache, tokenRevocationList);
+	}
+
+	@Test
+	void resyncRebuildsEverything() {
+		invalidator.resyncAll();
+
+		verify(verifiedTokenCache).invalidateAll();
+		verify(apiKeyPrincipalCache).reload();
+		verify(tokenRevocationList).reload();
+		verify(roleCatalog).reload();
+	}
+}
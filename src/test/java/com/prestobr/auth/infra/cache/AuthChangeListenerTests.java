@@ -0,0 +1,147 @@
+package com.prestobr.auth.infra.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.infra.datasource.RecentWriters;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.TokenRevocationList;
+import com.prestobr.auth.infra.security.VerifiedTokenCache;
+import com.prestobr.auth.repository.RevokedSubjectRepository;
+import com.prestobr.auth.repository.RevokedTokenRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+// Triggers das migrations + LISTEN de verdade, num Postgres embarcado
+class AuthChangeListenerTests {
+
+	private static final long TIMEOUT_MS = 10_000;
+
+	private static EmbeddedPostgres postgres;
+
+	private AuthCacheInvalidator invalidator;
+	private AuthChangeListener listener;
+
+	@BeforeAll
+	static void startPostgres() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		Flyway.configure()
+				.dataSource(postgres.getPostgresDatabase())
+				.load()
+				.migrate();
+	}
+
+	@AfterAll
+	static void stopPostgres() throws IOException {
+		postgres.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		DataSourceProperties properties = new DataSourceProperties();
+		properties.setUrl(postgres.getJdbcUrl("postgres", "postgres"));
+		properties.setUsername("postgres");
+		properties.setPassword("postgres");
+
+		invalidator = mock(AuthCacheInvalidator.class);
+		listener = new AuthChangeListener(properties, invalidator);
+		listener.start();
+
+		// resyncAll roda logo depois do LISTEN: a partir daqui nenhum evento se perde
+		verify(invalidator, timeout(TIMEOUT_MS)).resyncAll();
+	}
+
+	@AfterEach
+	void tearDown() {
+		listener.stop();
+	}
+
+	@Test
+	void passwordRehashDoesNotNotify() throws SQLException {
+		execute("UPDATE users SET password = 'rehashed' WHERE username = 'admin'");
+		insertUser("marker.rehash");
+
+		// Os eventos chegam na ordem dos commits: se o rehash notificasse, viria antes do marcador
+		assertThat(awaitPayloadsUntil("marker.rehash"))
+				.singleElement().asString().contains("\"username\" : \"marker.rehash\"");
+	}
+
+	@Test
+	void activeChangeNotifies() throws SQLException {
+		insertUser("joao");
+		execute("UPDATE users SET active = false WHERE username = 'joao'");
+		insertUser("marker.active");
+
+		List<String> payloads = awaitPayloadsUntil("marker.active");
+		assertThat(payloads).hasSize(4);
+		assertThat(payloads.get(1)).contains("\"entity\" : \"user\"", "\"username\" : \"joao\"");
+		assertThat(payloads.get(2)).contains("\"entity\" : \"revoked_subject\"", "\"username\" : \"joao\"");
+	}
+
+	@Test
+	void deactivationRevokesTokensIssuedBefore() throws SQLException {
+		insertUser("pedro");
+		long issuedBeforeDeactivation = Instant.now().getEpochSecond();
+		execute("UPDATE users SET active = false WHERE username = 'pedro'");
+		insertUser("marker.deactivate");
+
+		// Aplica os eventos recebidos num invalidator de verdade, como o listener faz em produção
+		TokenRevocationList tokenRevocationList = new TokenRevocationList(
+				mock(RevokedTokenRepository.class), mock(RevokedSubjectRepository.class), 1000, 900_000);
+		AuthCacheInvalidator realInvalidator = new AuthCacheInvalidator(new ObjectMapper(), mock(VerifiedTokenCache.class),
+				mock(ApiKeyPrincipalCache.class), tokenRevocationList, mock(RoleCatalog.class), new RecentWriters(5000));
+		awaitPayloadsUntil("marker.deactivate").forEach(realInvalidator::handle);
+
+		assertThat(tokenRevocationList.isRevoked(UUID.randomUUID(), "pedro", issuedBeforeDeactivation)).isTrue();
+		assertThat(tokenRevocationList.isRevoked(UUID.randomUUID(), "joana", issuedBeforeDeactivation)).isFalse();
+	}
+
+	@Test
+	void usernameChangeNotifiesOldAndNewNames() throws SQLException {
+		insertUser("maria");
+		execute("UPDATE users SET username = 'maria.silva' WHERE username = 'maria'");
+		insertUser("marker.rename");
+
+		List<String> payloads = awaitPayloadsUntil("marker.rename");
+		assertThat(payloads).hasSize(4);
+		assertThat(payloads.get(1)).contains("\"username\" : \"maria.silva\"");
+		assertThat(payloads.get(2)).contains("\"username\" : \"maria\"");
+	}
+
+	private List<String> awaitPayloadsUntil(String markerUsername) {
+		verify(invalidator, timeout(TIMEOUT_MS)).handle(contains("\"username\" : \"" + markerUsername + "\""));
+
+		ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+		verify(invalidator, atLeastOnce()).handle(payloads.capture());
+		return payloads.getAllValues();
+	}
+
+	private static void insertUser(String username) throws SQLException {
+		execute("INSERT INTO users (username, email, password, active, created_at) "
+				+ "VALUES ('" + username + "', '" + username + "@prestobr.com', 'x', true, now())");
+	}
+
+	private static void execute(String sql) throws SQLException {
+		try (Connection connection = postgres.getPostgresDatabase().getConnection();
+			 Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.prestobr.auth.infra.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTests {
+
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource replica = mock(DataSource.class);
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection replicaConnection = mock(Connection.class);
+
+	private ReplicaLagMonitor lagMonitor;
+	private DataSource dataSource;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+		lagMonitor = new ReplicaLagMonitor(replica, 1000, new SimpleMeterRegistry());
+		lagMonitor.record(200);
+		dataSource = ReplicaRoutingDataSource.readWriteSplitting(primary, replica, lagMonitor);
+	}
+
+	@Test
+	void readOnlyConnectionGoesToReplicaAndWritesToPrimary() throws SQLException {
+		assertSame(replicaConnection, target(true));
+		assertSame(primaryConnection, target(false));
+	}
+
+	@Test
+	void pinnedReadStaysOnPrimary() throws SQLException {
+		try (ReplicaRouting.Pin pin = ReplicaRouting.pinToPrimary()) {
+			// Pin aninhado não desfaz o externo
+			ReplicaRouting.onPrimary(() -> { });
+			assertTrue(ReplicaRouting.isPinnedToPrimary());
+			assertSame(primaryConnection, target(true));
+		}
+		assertFalse(ReplicaRouting.isPinnedToPrimary());
+		assertSame(replicaConnection, target(true));
+	}
+
+	@Test
+	void staleOrUnknownLagFallsBackToPrimary() throws SQLException {
+		lagMonitor.record(1500);
+		assertFalse(lagMonitor.isFresh());
+		assertSame(primaryConnection, target(true));
+
+		// Réplica fora do ar na medição
+		when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+		lagMonitor.check();
+		assertEquals(ReplicaLagMonitor.UNKNOWN, lagMonitor.lagMillis());
+		assertSame(primaryConnection, target(true));
+
+		lagMonitor.record(1000);
+		assertTrue(lagMonitor.isFresh());
+	}
+
+	// Conexão física por trás do proxy — obtida só no primeiro uso, como dentro de uma transação JPA
+	private Connection target(boolean readOnly) throws SQLException {
+		clearInvocations(primaryConnection, replicaConnection);
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setReadOnly(readOnly);
+			connection.createStatement();
+		}
+		return mockingDetails(replicaConnection).getInvocations().isEmpty() ? primaryConnection : replicaConnection;
+	}
+}
@@ -0,0 +1,131 @@
+package com.prestobr.auth.infra.datasource;
+
+import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.infra.security.CustomUserDetailsService;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Dois Postgres embarcados com o mesmo schema: o segundo faz papel de réplica que nunca recebe as escritas
+class ReplicaRoutingPostgresTests {
+
+	private static EmbeddedPostgres primary;
+	private static EmbeddedPostgres replica;
+
+	private ReplicaLagMonitor lagMonitor;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate writeTransaction;
+	private TransactionTemplate readOnlyTransaction;
+	private RecentWriters recentWriters;
+	private CustomUserDetailsService userDetailsService;
+
+	@BeforeAll
+	static void startPostgres() throws IOException {
+		primary = EmbeddedPostgres.start();
+		replica = EmbeddedPostgres.start();
+		for (EmbeddedPostgres postgres : new EmbeddedPostgres[] { primary, replica }) {
+			Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+		}
+	}
+
+	@AfterAll
+	static void stopPostgres() throws IOException {
+		primary.close();
+		replica.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		lagMonitor = new ReplicaLagMonitor(replica.getPostgresDatabase(), 1000, new SimpleMeterRegistry());
+		DataSource dataSource = ReplicaRoutingDataSource.readWriteSplitting(
+				primary.getPostgresDatabase(), replica.getPostgresDatabase(), lagMonitor);
+
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		writeTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+
+		// Repositório simulado com a mesma semântica do Spring Data: consulta numa transação read-only
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findWithRolesByUsername(anyString()))
+				.thenAnswer(invocation -> readOnlyTransaction.execute(status -> findUser(invocation.getArgument(0))));
+
+		recentWriters = new RecentWriters(5000);
+		userDetailsService = new CustomUserDetailsService(
+				userRepository, mock(RoleCatalog.class), new AuthMetrics(new SimpleMeterRegistry()), recentWriters);
+
+		// Postgres comum fora de recovery: a consulta de atraso real responde 0
+		lagMonitor.check();
+		assertTrue(lagMonitor.isFresh());
+	}
+
+	@Test
+	void writesGoToPrimaryAndReadOnlyReadsToReplica() {
+		insertUser("ana");
+
+		assertEquals(0, countUsers("ana"));
+		try (ReplicaRouting.Pin pin = ReplicaRouting.pinToPrimary()) {
+			assertEquals(1, countUsers("ana"));
+		}
+
+		// Réplica atrasada além da política: leitura volta para o primário
+		lagMonitor.record(5000);
+		assertEquals(1, countUsers("ana"));
+	}
+
+	@Test
+	void loginLookupStaysOnPrimaryOnlyForRecentWriters() {
+		insertUser("bruno");
+
+		// Sem escrita recente a busca do login vai para a réplica — que ainda não tem o usuário
+		assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("bruno"));
+		assertEquals("admin", userDetailsService.loadUserByUsername("admin").getUsername());
+
+		recentWriters.record("bruno");
+		assertEquals("bruno", userDetailsService.loadUserByUsername("bruno").getUsername());
+	}
+
+	private void insertUser(String username) {
+		writeTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+				"INSERT INTO users (username, email, password, active, created_at) VALUES (?, ?, 'x', true, now())",
+				username, username + "@prestobr.com"));
+	}
+
+	private int countUsers(String username) {
+		return readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(
+				"SELECT count(*) FROM users WHERE username = ?", Integer.class, username));
+	}
+
+	private Optional<User> findUser(String username) {
+		return jdbcTemplate.query("SELECT id, username, password, active FROM users WHERE username = ?",
+				(rs, row) -> User.builder()
+						.id(rs.getLong("id"))
+						.username(rs.getString("username"))
+						.password(rs.getString("password"))
+						.active(rs.getBoolean("active"))
+						.roles(Set.of())
+						.build(),
+				username).stream().findFirst();
+	}
+}
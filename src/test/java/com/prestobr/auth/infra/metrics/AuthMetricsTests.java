@@ -0,0 +1,45 @@
+package com.prestobr.auth.infra.metrics;
+
+import com.prestobr.auth.infra.metrics.AuthLatencyEndpoint.StageLatency;
+import com.prestobr.auth.infra.metrics.AuthMetrics.LoginOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AuthMetrics authMetrics = new AuthMetrics(registry);
+
+	@Test
+	void recordsEachOutcomeUnderItsOwnTag() {
+		authMetrics.recordLogin(AuthMetrics.start(), LoginOutcome.SUCCESS);
+		authMetrics.recordLogin(AuthMetrics.start(), LoginOutcome.BAD_CREDENTIALS);
+		authMetrics.recordLogin(AuthMetrics.start(), LoginOutcome.BAD_CREDENTIALS);
+		authMetrics.recordApiKey(AuthMetrics.start(), true, false);
+
+		assertEquals(1, registry.get("auth.login").tag("outcome", "success").timer().count());
+		assertEquals(2, registry.get("auth.login").tag("outcome", "bad_credentials").timer().count());
+		assertEquals(0, registry.get("auth.login").tag("outcome", "busy").timer().count());
+		assertEquals(1, registry.get("auth.api-key").tags("type", "signed", "result", "rejected").timer().count());
+	}
+
+	@Test
+	void latencyEndpointReportsEveryStageWithPercentiles() {
+		authMetrics.recordTokenVerify(AuthMetrics.start(), true);
+
+		List<StageLatency> stages = new AuthLatencyEndpoint(authMetrics).stages();
+		StageLatency verify = stages.stream()
+				.filter(stage -> stage.name().equals("auth.token.verify") && stage.tags().equals(Map.of("result", "valid")))
+				.findFirst()
+				.orElseThrow();
+
+		assertEquals(authMetrics.timers().size(), stages.size());
+		assertEquals(1, verify.count());
+		assertEquals(List.of("p50", "p95", "p99"), List.copyOf(verify.percentilesMs().keySet()));
+	}
+}
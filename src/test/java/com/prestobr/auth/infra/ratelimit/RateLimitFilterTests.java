@@ -0,0 +1,83 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.infra.security.ApiKeyAuthFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTests {
+
+	// login-username com 1 token: a segunda tentativa na mesma conta já é recusada
+	private final RateLimiters rateLimiters = new RateLimiters(true, 1000, 100, 100, 1, 1, 1, 1, 1000, 1000);
+	private final RateLimitFilter loginFilter = new RateLimitFilter(rateLimiters, new ObjectMapper());
+	private final ApiKeyRateLimitFilter apiKeyFilter = new ApiKeyRateLimitFilter(rateLimiters);
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void loginIsLimitedByUsernameAndBodyIsReplayed() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		assertEquals(200, login("{\"username\":\"maria\",\"password\":\"x\"}", chain).getStatus());
+		assertEquals("{\"username\":\"maria\",\"password\":\"x\"}",
+				new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+		MockHttpServletResponse second = login("{\"username\":\"maria\",\"password\":\"y\"}", new MockFilterChain());
+		assertEquals(429, second.getStatus());
+		assertNotNull(second.getHeader("Retry-After"));
+	}
+
+	@Test
+	void paddedOrUnreadableLoginBodyIsRejectedBeforeAuthentication() throws Exception {
+		String padded = "{\"username\":\"maria\",\"password\":\"x\",\"pad\":\"" + "a".repeat(9000) + "\"}";
+		MockFilterChain chain = new MockFilterChain();
+		assertEquals(413, login(padded, chain).getStatus());
+		assertNull(chain.getRequest());
+
+		assertEquals(400, login("not json", new MockFilterChain()).getStatus());
+		assertEquals(400, login("{\"password\":\"x\"}", new MockFilterChain()).getStatus());
+	}
+
+	@Test
+	void apiKeyBucketIsChargedOnlyForVerifiedKeys() throws Exception {
+		// Chave verificada: bucket da chave (1 token)
+		assertEquals(200, apiKey("10.0.0.1", 42L).getStatus());
+		assertEquals(429, apiKey("10.0.0.2", 42L).getStatus());
+
+		// Chave inválida: cobra o IP de quem mandou, nenhum bucket de chave
+		assertEquals(200, apiKey("10.0.0.3", null).getStatus());
+		assertEquals(99.0, rateLimiters.loginIp().available("10.0.0.3"));
+		assertEquals(1, rateLimiters.apiKey().stats().trackedKeys());
+	}
+
+	private MockHttpServletResponse login(String body, MockFilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/auth/login");
+		request.setServletPath("/v1/auth/login");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		loginFilter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private MockHttpServletResponse apiKey(String ip, Long verifiedKeyId) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api-keys");
+		request.setRemoteAddr(ip);
+		request.addHeader(ApiKeyAuthFilter.API_KEY_HEADER, "pb_7_secret");
+		if (verifiedKeyId != null) {
+			request.setAttribute(ApiKeyAuthFilter.VERIFIED_KEY_ID_ATTRIBUTE, verifiedKeyId);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		apiKeyFilter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
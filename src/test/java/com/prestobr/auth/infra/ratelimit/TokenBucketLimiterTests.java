@@ -0,0 +1,107 @@
+package com.prestobr.auth.infra.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTests {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000);
+
+	@Test
+	void burstUpToCapacityThenRefillsOverTime() {
+		// 3 de burst, 6 por minuto = 1 token a cada 10 s
+		TokenBucketLimiter limiter = new TokenBucketLimiter("test", 3, 6, 1000, clock::get);
+
+		assertEquals(0, limiter.tryAcquire("maria"));
+		assertEquals(0, limiter.tryAcquire("maria"));
+		assertEquals(0, limiter.tryAcquire("maria"));
+		assertEquals(10_000, limiter.tryAcquire("maria"));
+		// Outra chave tem o próprio bucket
+		assertEquals(0, limiter.tryAcquire("joao"));
+
+		clock.addAndGet(4_000);
+		assertEquals(6_000, limiter.tryAcquire("maria"));
+
+		clock.addAndGet(6_000);
+		assertEquals(0, limiter.tryAcquire("maria"));
+		assertEquals(new TokenBucketLimiter.Stats("test", 3, 6, 2, 5, 2), limiter.stats());
+	}
+
+	@Test
+	void batchAcquireTakesAllPermitsOrNone() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter("test", 10, 60, 1000, clock::get);
+
+		assertEquals(0, limiter.tryAcquire("gateway", 8));
+		// Faltam 2 tokens para 4 — nada é consumido, 1 token por segundo
+		assertEquals(2_000, limiter.tryAcquire("gateway", 4));
+		assertEquals(2.0, limiter.available("gateway"));
+		assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire("gateway", 11));
+		assertThrows(RateLimitExceededException.class, () -> limiter.acquire("gateway", 3));
+	}
+
+	@Test
+	void idleBucketsAreEvictedOnceFull() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter("test", 3, 6, 1000, clock::get);
+		limiter.tryAcquire("maria");
+
+		clock.addAndGet(29_999);
+		assertEquals(0, limiter.evictIdle());
+
+		clock.addAndGet(1);
+		assertEquals(1, limiter.evictIdle());
+		assertEquals(3.0, limiter.available("maria"));
+	}
+
+	@Test
+	void newKeysShareOverflowBucketOnceMapIsFull() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter("test", 2, 6, 2, clock::get);
+		limiter.tryAcquire("a");
+		limiter.tryAcquire("b");
+
+		// Mapa cheio e nada ocioso: chaves novas dividem um único bucket, sem crescer o mapa
+		assertEquals(0, limiter.tryAcquire("x"));
+		assertEquals(0, limiter.tryAcquire("y"));
+		assertTrue(limiter.tryAcquire("z") > 0);
+		assertEquals(2, limiter.stats().trackedKeys());
+
+		// Buckets antigos ociosos liberam espaço na próxima varredura inline
+		clock.addAndGet(20_000);
+		assertEquals(0, limiter.tryAcquire("z"));
+		assertEquals(1, limiter.stats().trackedKeys());
+	}
+
+	@Test
+	void concurrentAcquiresNeverExceedCapacity() throws Exception {
+		TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1000, 1, 1000, clock::get);
+		AtomicInteger granted = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 500; i++) {
+						if (limiter.tryAcquire("shared") == 0) {
+							granted.incrementAndGet();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1000, granted.get());
+	}
+}
@@ -0,0 +1,36 @@
+package com.prestobr.auth.infra.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePasswordEncodersTests {
+
+	private final PasswordEncoder encoder = AdaptivePasswordEncoders.create(AdaptivePasswordEncoders.BCRYPT, 11, Duration.ofMillis(250));
+
+	@Test
+	void bcryptHashIsRehashedWhenCostDiffersEitherWay() {
+		String weaker = "{bcrypt}" + new BCryptPasswordEncoder(10).encode("secret");
+		String current = encoder.encode("secret");
+		String stronger = "{bcrypt}" + new BCryptPasswordEncoder(12).encode("secret");
+
+		assertTrue(encoder.upgradeEncoding(weaker));
+		assertFalse(encoder.upgradeEncoding(current));
+		// Mais forte que o orçamento (ex.: nó mais rápido) também é refeito, para baixo
+		assertTrue(encoder.upgradeEncoding(stronger));
+		assertTrue(encoder.matches("secret", stronger));
+	}
+
+	@Test
+	void legacyHashWithoutIdIsRehashed() {
+		// Admin do V1: BCrypt puro, sem "{bcrypt}"
+		String legacy = new BCryptPasswordEncoder(12).encode("admin");
+
+		assertTrue(encoder.matches("admin", legacy));
+		assertTrue(encoder.upgradeEncoding(legacy));
+	}
+}
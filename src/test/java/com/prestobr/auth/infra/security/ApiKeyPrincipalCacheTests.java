@@ -0,0 +1,147 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.domain.entity.RevokedSignedKey;
+import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.repository.ApiKeyRepository;
+import com.prestobr.auth.repository.RevokedSignedKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ApiKeyPrincipalCacheTests {
+
+	private ApiKeyRepository apiKeyRepository;
+	private RevokedSignedKeyRepository revokedSignedKeyRepository;
+	private ApiKeyPrincipalCache cache;
+
+	@BeforeEach
+	void setUp() {
+		apiKeyRepository = mock(ApiKeyRepository.class);
+		revokedSignedKeyRepository = mock(RevokedSignedKeyRepository.class);
+		cache = new ApiKeyPrincipalCache(apiKeyRepository, mock(RoleCatalog.class), revokedSignedKeyRepository);
+	}
+
+	@Test
+	void deletedSignedKeyStaysRevokedAfterReload() {
+		cache.put(revokedSignedKey(9L, null));
+
+		// Linha apagada: o trigger de V12 deixou a revogação em revoked_signed_keys
+		RevokedSignedKey deleted = RevokedSignedKey.builder().apiKeyId(9L).build();
+		when(apiKeyRepository.findWithUserAndRolesById(9L)).thenReturn(Optional.empty());
+		when(revokedSignedKeyRepository.findById(9L)).thenReturn(Optional.of(deleted));
+		when(revokedSignedKeyRepository.findNotExpired(any())).thenReturn(List.of(deleted));
+
+		cache.refresh(9L);
+		assertTrue(cache.isSignedKeyRevoked(9L));
+
+		// findRevokedSigned não devolve mais a chave — a revogação vem só da tabela própria
+		cache.reload();
+		assertTrue(cache.isSignedKeyRevoked(9L));
+	}
+
+	@Test
+	void deletingActiveSignedKeyRevokesIt() {
+		when(apiKeyRepository.findWithUserAndRolesById(10L)).thenReturn(Optional.empty());
+		when(revokedSignedKeyRepository.findById(10L)).thenReturn(Optional.of(RevokedSignedKey.builder()
+				.apiKeyId(10L)
+				.expiresAt(LocalDateTime.now().plusDays(1))
+				.build()));
+
+		cache.refresh(10L);
+
+		assertTrue(cache.isSignedKeyRevoked(10L));
+	}
+
+	@Test
+	void refreshOfDeletedUnsignedKeyDoesNotCreateRevocation() {
+		when(apiKeyRepository.findWithUserAndRolesById(7L)).thenReturn(Optional.empty());
+
+		cache.refresh(7L);
+
+		assertFalse(cache.isSignedKeyRevoked(7L));
+	}
+
+	@Test
+	void revokedSignedKeyKeepsItsExpiryAfterRowIsDeleted() {
+		LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(2);
+		cache.put(revokedSignedKey(8L, expiresAt));
+		when(apiKeyRepository.findWithUserAndRolesById(8L)).thenReturn(Optional.empty());
+
+		cache.refresh(8L);
+		cache.evictExpired();
+		assertTrue(cache.isSignedKeyRevoked(8L));
+
+		// Mesma chave já expirada: a revogação deixa de ser lembrada
+		cache.put(revokedSignedKey(8L, LocalDateTime.now().minusSeconds(1)));
+		cache.refresh(8L);
+		cache.evictExpired();
+		assertFalse(cache.isSignedKeyRevoked(8L));
+	}
+
+	@Test
+	void revocationDuringReloadIsNotLost() throws Exception {
+		CountDownLatch queryStarted = new CountDownLatch(1);
+		CountDownLatch releaseQuery = new CountDownLatch(1);
+		when(apiKeyRepository.findRevokedSigned(any())).thenAnswer(invocation -> {
+			queryStarted.countDown();
+			releaseQuery.await();
+			return List.of();
+		});
+
+		Thread reload = Thread.ofPlatform().start(cache::reload);
+		queryStarted.await();
+
+		// Revogação que chega depois do snapshot do banco: espera a recarga em vez de ser apagada por ela
+		Thread revoke = Thread.ofPlatform().start(() -> cache.put(revokedSignedKey(11L, null)));
+		while (revoke.getState() != Thread.State.BLOCKED && revoke.getState() != Thread.State.TERMINATED) {
+			Thread.onSpinWait();
+		}
+		releaseQuery.countDown();
+		reload.join();
+		revoke.join();
+
+		assertTrue(cache.isSignedKeyRevoked(11L));
+	}
+
+	@Test
+	void sweepKeepsRevocationsMadeConcurrently() throws Exception {
+		int keys = 2_000;
+		LocalDateTime future = LocalDateTime.now().plusDays(1);
+		LocalDateTime past = LocalDateTime.now().minusDays(1);
+
+		// Revogações válidas intercaladas com expiradas — cada varredura tem o que remover e recria o filtro
+		Thread revoker = Thread.ofPlatform().start(() -> {
+			for (long id = 1; id <= keys; id++) {
+				cache.put(revokedSignedKey(id, future));
+				cache.put(revokedSignedKey(-id, past));
+			}
+		});
+		while (revoker.isAlive()) {
+			cache.evictExpired();
+		}
+		revoker.join();
+
+		for (long id = 1; id <= keys; id++) {
+			assertTrue(cache.isSignedKeyRevoked(id), "revogação perdida: " + id);
+		}
+	}
+
+	private static ApiKey revokedSignedKey(long id, LocalDateTime expiresAt) {
+		return ApiKey.builder()
+				.id(id)
+				.signed(true)
+				.active(false)
+				.expiresAt(expiresAt)
+				.user(User.builder().username("maria").build())
+				.build();
+	}
+}
@@ -0,0 +1,69 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+	// 1 thread e fila de 1: dois hashes pendentes já saturam o pool
+	private final BoundedPasswordEncoder encoder =
+			new BoundedPasswordEncoder(delegate, 1, 1, 3, new AuthMetrics(new SimpleMeterRegistry()));
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		encoder.shutdown();
+	}
+
+	@Test
+	void encodeAllKeepsInputOrder() {
+		when(delegate.encode(any())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+		List<String> passwords = IntStream.range(0, 50).mapToObj(i -> "p" + i).toList();
+
+		List<String> hashes = encoder.encodeAll(passwords);
+
+		assertEquals(passwords.stream().map(p -> "hash:" + p).toList(), hashes);
+	}
+
+	@Test
+	void saturatedPoolRejectsLoginsButNotBatches() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return true;
+		});
+		when(delegate.encode(any())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+
+		// Um login ocupa a thread, outro a fila
+		CompletableFuture.runAsync(() -> encoder.matches("a", "x"));
+		started.await();
+		CompletableFuture.runAsync(() -> encoder.matches("b", "x"));
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "executor");
+		while (executor.getQueue().isEmpty()) {
+			Thread.onSpinWait();
+		}
+
+		PasswordHashingBusyException busy = assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("c", "x"));
+		assertEquals("3", busy.getHeaders().getFirst("Retry-After"));
+
+		// O lote não recebe 429: com a fila cheia, calcula na thread de quem chamou
+		assertEquals(List.of("hash:x", "hash:y"), encoder.encodeAll(List.of("x", "y")));
+	}
+}
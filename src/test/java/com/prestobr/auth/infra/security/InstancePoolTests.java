@@ -0,0 +1,54 @@
+package com.prestobr.auth.infra.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstancePoolTests {
+
+	@Test
+	void releasedInstanceIsReusedInsteadOfCreatingANewOne() {
+		AtomicInteger created = new AtomicInteger();
+		InstancePool<Object> pool = new InstancePool<>(() -> {
+			created.incrementAndGet();
+			return new Object();
+		});
+		int pooled = created.get();
+
+		for (int i = 0; i < 1_000; i++) {
+			pool.acquire().release();
+		}
+
+		assertEquals(pooled, created.get());
+	}
+
+	@Test
+	void busyInstanceIsNeverHandedOutTwice() {
+		AtomicInteger created = new AtomicInteger();
+		InstancePool<Object> pool = new InstancePool<>(() -> {
+			created.incrementAndGet();
+			return new Object();
+		});
+		int pooled = created.get();
+
+		// Todos os slots ocupados e mais alguns: os excedentes são temporários, nunca um slot em uso
+		List<InstancePool.Lease<Object>> leases = new ArrayList<>();
+		Map<Object, Boolean> seen = new IdentityHashMap<>();
+		for (int i = 0; i < pooled + 3; i++) {
+			InstancePool.Lease<Object> lease = pool.acquire();
+			assertNull(seen.put(lease.get(), true));
+			leases.add(lease);
+		}
+		assertEquals(pooled + 3, created.get());
+
+		leases.forEach(InstancePool.Lease::release);
+		pool.acquire().release();
+		assertEquals(pooled + 3, created.get());
+	}
+}
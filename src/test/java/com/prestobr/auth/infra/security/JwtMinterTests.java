@@ -0,0 +1,102 @@
+package com.prestobr.auth.infra.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtMinterTests {
+
+	private static final long IAT = 1_760_000_000L;
+	private static final long EXP = IAT + 86_400;
+
+	@Test
+	void hmacTokensAreByteIdenticalToJjwt() {
+		// 32, 48 e 64 bytes → HS256, HS384 e HS512 (Keys.hmacShaKeyFor escolhe pelo tamanho)
+		for (String secret : List.of("0123456789abcdef0123456789abcdef",
+				"0123456789abcdef0123456789abcdef0123456789abcdef",
+				"0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef")) {
+			SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+			JwtMinter minter = JwtMinter.hmac(key);
+
+			assertSameAsJjwt(key, minter, "maria", List.of("ADMIN", "FISCAL_READ"), 0b1010);
+			assertSameAsJjwt(key, minter, "joao.silva", List.of(), 0);
+			assertSameAsJjwt(key, minter, "a\"b\\c\td\u0001e/f", List.of("ROLE\nX"), Long.MAX_VALUE);
+		}
+	}
+
+	@Test
+	void mintedTokensAreAcceptedByTheJjwtParser() throws Exception {
+		SecretKey key = Keys.hmacShaKeyFor("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+		String jti = UUID.randomUUID().toString();
+		long now = System.currentTimeMillis() / 1000;
+
+		String token = JwtMinter.hmac(key).mint("maria", List.of("ADMIN"), 2, now, now + 60, jti);
+		Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+
+		assertEquals("maria", claims.getSubject());
+		assertEquals(List.of("ADMIN"), claims.get("roles"));
+		assertEquals(2, ((Number) claims.get("rb")).longValue());
+		assertEquals(jti, claims.getId());
+	}
+
+	@Test
+	void es256TokensMatchJjwtHeaderAndPayloadAndVerify() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+		generator.initialize(new ECGenParameterSpec("secp256r1"));
+		KeyPair pair = generator.generateKeyPair();
+		String jti = UUID.randomUUID().toString();
+		long now = System.currentTimeMillis() / 1000;
+
+		String minted = JwtMinter.asymmetric("2026-10", pair.getPrivate(), "ES256")
+				.mint("maria", List.of("ADMIN"), 2, now, now + 60, jti);
+		String jjwt = Jwts.builder()
+				.subject("maria")
+				.claim("roles", List.of("ADMIN"))
+				.claim("rb", 2L)
+				.issuedAt(new Date(now * 1000))
+				.expiration(new Date((now + 60) * 1000))
+				.id(jti)
+				.header().keyId("2026-10").and()
+				.signWith(pair.getPrivate(), Jwts.SIG.ES256)
+				.compact();
+
+		// A assinatura ECDSA é aleatória — só header e payload podem ser comparados byte a byte
+		assertEquals(jjwt.substring(0, jjwt.lastIndexOf('.')), minted.substring(0, minted.lastIndexOf('.')));
+		assertEquals("maria", Jwts.parser().verifyWith(pair.getPublic()).build().parseSignedClaims(minted).getPayload().getSubject());
+	}
+
+	@Test
+	void nonAsciiTextIsLeftToJjwt() {
+		SecretKey key = Keys.hmacShaKeyFor("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+		assertNull(JwtMinter.hmac(key).mint("joão", List.of("ADMIN"), 2, IAT, EXP, UUID.randomUUID().toString()));
+		assertNull(JwtMinter.hmac(key).mint("maria", List.of("FISCAL_LEITURA_Ç"), 0, IAT, EXP, UUID.randomUUID().toString()));
+	}
+
+	private static void assertSameAsJjwt(SecretKey key, JwtMinter minter, String subject, List<String> roles, long roleMask) {
+		String jti = UUID.randomUUID().toString();
+		String expected = Jwts.builder()
+				.subject(subject)
+				.claim("roles", roles)
+				.claim("rb", roleMask)
+				.issuedAt(new Date(IAT * 1000))
+				.expiration(new Date(EXP * 1000))
+				.id(jti)
+				.signWith(key)
+				.compact();
+
+		assertEquals(expected, minter.mint(subject, roles, roleMask, IAT, EXP, jti));
+	}
+}
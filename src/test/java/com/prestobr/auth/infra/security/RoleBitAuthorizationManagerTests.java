@@ -0,0 +1,86 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.repository.RoleRepository;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoleBitAuthorizationManagerTests {
+
+	private RoleCatalog roleCatalog;
+
+	@BeforeEach
+	void setUp() {
+		RoleRepository roleRepository = mock(RoleRepository.class);
+		when(roleRepository.findAll()).thenReturn(List.of(
+				Role.builder().id(1L).name("ADMIN").build(),
+				Role.builder().id(2L).name("FISCAL_READ").build(),
+				Role.builder().id(70L).name("LEGACY").build()));
+		roleCatalog = new RoleCatalog(roleRepository);
+		roleCatalog.reload();
+	}
+
+	@Test
+	void grantsByRoleBit() {
+		AuthorizationManager<Object> admin = RoleBitAuthorizationManager.hasAnyRole(() -> roleCatalog, "ADMIN");
+
+		assertTrue(admin.authorize(() -> roleCatalog.authentication("ana", List.of("ADMIN", "FISCAL_READ")), null).isGranted());
+		assertFalse(admin.authorize(() -> roleCatalog.authentication("bia", List.of("FISCAL_READ")), null).isGranted());
+		// Bit 1 sem authority: a decisão é do bitmask
+		assertTrue(admin.authorize(() -> new RoleMaskAuthentication("cid", 1L << 1, List.of()), null).isGranted());
+	}
+
+	@Test
+	void roleOutsideMaskAndForeignAuthenticationFallBackToAuthorities() {
+		AuthorizationManager<Object> legacy = RoleBitAuthorizationManager.hasAnyRole(() -> roleCatalog, "LEGACY");
+		AuthorizationManager<Object> admin = RoleBitAuthorizationManager.hasAnyRole(() -> roleCatalog, "ADMIN");
+		Authentication token = UsernamePasswordAuthenticationToken.authenticated(
+				"ana", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+		assertEquals(0, roleCatalog.bit("LEGACY"));
+		assertTrue(legacy.authorize(() -> roleCatalog.authentication("ana", List.of("LEGACY")), null).isGranted());
+		assertTrue(admin.authorize(() -> token, null).isGranted());
+		assertFalse(admin.authorize(() -> null, null).isGranted());
+	}
+
+	@Test
+	void preAuthorizeHasRoleIsEvaluatedByBits() throws Exception {
+		PreAuthorizeRoleBitManager manager = new PreAuthorizeRoleBitManager(() -> roleCatalog);
+		MethodInvocation adminOnly = invocation("adminOnly");
+		MethodInvocation anyOf = invocation("adminOrFiscal");
+		Authentication fiscal = roleCatalog.authentication("bia", List.of("FISCAL_READ"));
+
+		assertFalse(manager.authorize(() -> fiscal, adminOnly).isGranted());
+		assertTrue(manager.authorize(() -> fiscal, anyOf).isGranted());
+		assertTrue(manager.authorize(() -> roleCatalog.authentication("ana", List.of("ADMIN")), adminOnly).isGranted());
+	}
+
+	private static MethodInvocation invocation(String name) throws Exception {
+		MethodInvocation invocation = mock(MethodInvocation.class);
+		when(invocation.getMethod()).thenReturn(Endpoints.class.getDeclaredMethod(name));
+		when(invocation.getThis()).thenReturn(new Endpoints());
+		return invocation;
+	}
+
+	static class Endpoints {
+
+		@PreAuthorize("hasRole('ADMIN')")
+		void adminOnly() {
+		}
+
+		@PreAuthorize("hasAnyRole('ADMIN', 'FISCAL_READ')")
+		void adminOrFiscal() {
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.infra.security.SignedApiKeys.SignedApiKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedApiKeysTests {
+
+	private final SignedApiKeys signedApiKeys = new SignedApiKeys("0123456789abcdef0123456789abcdef0123456789abcdef");
+
+	@Test
+	void issuedKeyVerifiesWithItsClaims() {
+		LocalDateTime expiresAt = LocalDateTime.of(2030, 1, 1, 0, 0);
+		String rawKey = signedApiKeys.issue(42, "joão", (1L << 1) | (1L << 3), expiresAt);
+
+		SignedApiKey key = signedApiKeys.verify(rawKey).orElseThrow();
+
+		assertTrue(rawKey.startsWith(SignedApiKeys.KEY_PREFIX));
+		assertEquals(42, key.keyId());
+		assertEquals("joão", key.username());
+		assertEquals((1L << 1) | (1L << 3), key.roleMask());
+		assertEquals(expiresAt.atZone(ZoneId.systemDefault()).toEpochSecond(), key.expiresAtEpochSec());
+	}
+
+	@Test
+	void keyWithoutExpiryNeverExpires() {
+		SignedApiKey key = signedApiKeys.verify(signedApiKeys.issue(1, "maria", 2, null)).orElseThrow();
+
+		assertEquals(0, key.expiresAtEpochSec());
+		assertFalse(key.isExpired(Long.MAX_VALUE));
+	}
+
+	@Test
+	void tamperedOrForeignKeysAreRejected() {
+		String rawKey = signedApiKeys.issue(42, "maria", 2, null);
+		int dot = rawKey.indexOf('.');
+		// Troca o dono no payload ("maria" → "marib") mantendo o MAC original
+		byte[] payload = Base64.getUrlDecoder().decode(rawKey.substring(SignedApiKeys.KEY_PREFIX.length(), dot));
+		payload[payload.length - 1]++;
+		String forged = SignedApiKeys.KEY_PREFIX
+				+ Base64.getUrlEncoder().withoutPadding().encodeToString(payload)
+				+ rawKey.substring(dot);
+		SignedApiKeys otherSecret = new SignedApiKeys("another-secret-another-secret-another-secret");
+
+		assertTrue(signedApiKeys.verify(forged).isEmpty());
+		assertTrue(otherSecret.verify(rawKey).isEmpty());
+		assertTrue(signedApiKeys.verify("pbs_not-a-key").isEmpty());
+		assertTrue(signedApiKeys.verify("pb_0123456789abcdef_secret").isEmpty());
+	}
+}
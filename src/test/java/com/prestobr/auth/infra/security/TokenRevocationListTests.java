@@ -0,0 +1,64 @@
+package com.prestobr.auth.infra.security;
+
+import com.prestobr.auth.domain.entity.RevokedSubject;
+import com.prestobr.auth.repository.RevokedSubjectRepository;
+import com.prestobr.auth.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTests {
+
+	private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+	private final RevokedSubjectRepository revokedSubjectRepository = mock(RevokedSubjectRepository.class);
+	private final TokenRevocationList revocationList =
+			new TokenRevocationList(revokedTokenRepository, revokedSubjectRepository, 1000, 86_400_000);
+
+	@Test
+	void revokedSubjectCoversOnlyTokensIssuedBeforeTheRevocationSecond() {
+		revocationList.revokeSubject("maria");
+
+		ArgumentCaptor<RevokedSubject> saved = ArgumentCaptor.forClass(RevokedSubject.class);
+		verify(revokedSubjectRepository).save(saved.capture());
+		long revokedBefore = saved.getValue().getRevokedBefore().getEpochSecond();
+
+		assertTrue(revocationList.isRevoked(null, "maria", revokedBefore - 1));
+		// Re-login ou refresh logo depois de updateRoles, no mesmo segundo: token novo vale
+		assertFalse(revocationList.isRevoked(null, "maria", revokedBefore));
+		assertFalse(revocationList.isRevoked(null, "maria", revokedBefore + 1));
+		assertFalse(revocationList.isRevoked(null, "joao", revokedBefore - 1));
+	}
+
+	@Test
+	void revokedTokenIsMatchedByJti() {
+		UUID jti = UUID.randomUUID();
+		revocationList.revokeToken(jti, Instant.now().plusSeconds(600));
+
+		assertTrue(revocationList.isRevoked(jti, "maria", 0));
+		assertFalse(revocationList.isRevoked(UUID.randomUUID(), "maria", 0));
+		assertFalse(revocationList.isRevoked(null, "maria", 0));
+	}
+
+	@Test
+	void pruneDropsRevocationsWhoseTokensAlreadyExpired() {
+		long now = Instant.now().getEpochSecond();
+		UUID expired = UUID.randomUUID();
+		UUID valid = UUID.randomUUID();
+		revocationList.applyRevokedToken(expired, now - 1);
+		revocationList.applyRevokedToken(valid, now + 600);
+		revocationList.applyRevokedSubject("maria", now - 10, now - 1);
+
+		revocationList.prune();
+
+		assertFalse(revocationList.isRevoked(expired, "joao", 0));
+		assertTrue(revocationList.isRevoked(valid, "joao", 0));
+		assertFalse(revocationList.isRevoked(null, "maria", now - 20));
+		verify(revokedTokenRepository).deleteExpired(any());
+		verify(revokedSubjectRepository).deleteExpired(any());
+	}
+}
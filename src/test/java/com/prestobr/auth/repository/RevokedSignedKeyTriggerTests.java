@@ -0,0 +1,60 @@
+package com.prestobr.auth.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Trigger de V12 num Postgres embarcado: apagar a linha de uma chave assinada não a desrevoga
+class RevokedSignedKeyTriggerTests {
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void startPostgres() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+		jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+	}
+
+	@AfterAll
+	static void stopPostgres() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void deletingUserKeepsRevocationOfItsSignedKeys() {
+		LocalDateTime expiresAt = LocalDateTime.of(2030, 1, 1, 12, 0);
+		long userId = jdbcTemplate.queryForObject(
+				"INSERT INTO users (username, email, password) VALUES ('carla', 'carla@prestobr.com', 'x') RETURNING id",
+				Long.class);
+		long signedKeyId = insertKey(userId, "signed-hash", true, expiresAt);
+		long plainKeyId = insertKey(userId, "plain-hash", false, null);
+
+		// ON DELETE CASCADE apaga as chaves junto com o usuário
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+
+		List<Timestamp> revoked = jdbcTemplate.queryForList(
+				"SELECT expires_at FROM revoked_signed_keys WHERE api_key_id = ?", Timestamp.class, signedKeyId);
+		assertEquals(List.of(Timestamp.valueOf(expiresAt)), revoked);
+		assertEquals(0, jdbcTemplate.queryForObject(
+				"SELECT count(*) FROM revoked_signed_keys WHERE api_key_id = ?", Integer.class, plainKeyId));
+	}
+
+	private static long insertKey(long userId, String keyHash, boolean signed, LocalDateTime expiresAt) {
+		return jdbcTemplate.queryForObject("""
+				INSERT INTO api_keys (key_hash, description, signed, expires_at, user_id)
+				VALUES (?, 'teste', ?, ?, ?) RETURNING id
+				""", Long.class, keyHash, signed, expiresAt == null ? null : Timestamp.valueOf(expiresAt), userId);
+	}
+}
@@ -0,0 +1,242 @@
+package com.prestobr.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestobr.auth.domain.entity.ApiKey;
+import com.prestobr.auth.domain.entity.AuditEvent;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.dto.request.ApiKeyProvisionRequest;
+import com.prestobr.auth.dto.request.RegisterRequest;
+import com.prestobr.auth.dto.response.ApiKeyResponse;
+import com.prestobr.auth.dto.response.BulkResponse;
+import com.prestobr.auth.dto.response.UserResponse;
+import com.prestobr.auth.infra.audit.AuditLog;
+import com.prestobr.auth.infra.metrics.AuthMetrics;
+import com.prestobr.auth.infra.security.ApiKeyHasher;
+import com.prestobr.auth.infra.security.ApiKeyPrincipalCache;
+import com.prestobr.auth.infra.security.BoundedPasswordEncoder;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.repository.ApiKeyRepository;
+import com.prestobr.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkProvisioningServiceTests {
+
+	private static final Map<String, Role> ROLES = Map.of(
+			"ADMIN", Role.builder().id(1L).name("ADMIN").build(),
+			"FISCAL_READ", Role.builder().id(2L).name("FISCAL_READ").build());
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicLong ids = new AtomicLong();
+
+	private UserRepository userRepository;
+	private ApiKeyRepository apiKeyRepository;
+	private ApiKeyPrincipalCache apiKeyPrincipalCache;
+	private AuditLog auditLog;
+	private BoundedPasswordEncoder passwordEncoder;
+	private BulkProvisioningService service;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		apiKeyRepository = mock(ApiKeyRepository.class);
+		apiKeyPrincipalCache = mock(ApiKeyPrincipalCache.class);
+		auditLog = mock(AuditLog.class);
+
+		RoleCatalog roleCatalog = mock(RoleCatalog.class);
+		when(roleCatalog.unknown(any())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).stream()
+				.filter(name -> !ROLES.containsKey(name))
+				.collect(Collectors.toSet()));
+		when(roleCatalog.resolve(any())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).stream()
+				.map(ROLES::get)
+				.collect(Collectors.toSet()));
+
+		// Hash previsível — o BCrypt de verdade não importa aqui, só a ordem
+		PasswordEncoder delegate = mock(PasswordEncoder.class);
+		when(delegate.encode(any())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+		passwordEncoder = new BoundedPasswordEncoder(delegate, 2, 1, 1, new AuthMetrics(new SimpleMeterRegistry()));
+
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+
+		when(userRepository.findExistingUsernames(any())).thenReturn(Set.of("joao"));
+		when(userRepository.findExistingEmails(any())).thenReturn(Set.of("taken@prestobr.com"));
+		when(userRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+		when(apiKeyRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+			invocation.<List<ApiKey>>getArgument(0).forEach(key -> key.setId(ids.incrementAndGet()));
+			return invocation.getArgument(0);
+		});
+
+		service = new BulkProvisioningService(userRepository, apiKeyRepository, roleCatalog, passwordEncoder,
+				new ApiKeyHasher("test-secret-with-at-least-32-bytes!!"), apiKeyPrincipalCache,
+				Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, mock(EntityManager.class), auditLog);
+	}
+
+	@AfterEach
+	void tearDown() {
+		passwordEncoder.shutdown();
+	}
+
+	@Test
+	void registerAllRejectsBadRowsAndKeepsRequestOrder() {
+		List<RegisterRequest> rows = List.of(
+				user("ana", "ana@prestobr.com", "ADMIN"),
+				user("bo", "bo@prestobr.com"),                   // username curto demais
+				user("ana", "ana2@prestobr.com"),                // repetido na própria requisição
+				user("joao", "joao@prestobr.com"),               // já existe no banco
+				user("carla", "taken@prestobr.com"),             // email já existe no banco
+				user("dani", "dani@prestobr.com", "NOPE"),       // role desconhecida
+				user("edu", "edu@prestobr.com", "FISCAL_READ"));
+
+		BulkResponse<UserResponse> response = service.registerAll(rows);
+
+		assertEquals(2, response.created());
+		assertEquals(5, response.rejected());
+		assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), response.results().stream().map(r -> r.index()).toList());
+		assertEquals("ana", response.results().get(0).value().username());
+		assertTrue(response.results().get(1).error().startsWith("username:"));
+		assertEquals("Duplicate username in request: ana", response.results().get(2).error());
+		assertEquals("Username already exists.", response.results().get(3).error());
+		assertEquals("Email already exists.", response.results().get(4).error());
+		assertEquals("Role not found: NOPE", response.results().get(5).error());
+		assertEquals("edu", response.results().get(6).value().username());
+
+		// Um único INSERT em batch, com as senhas já em hash e na ordem das linhas
+		ArgumentCaptor<List<User>> inserted = ArgumentCaptor.captor();
+		verify(userRepository).saveAllAndFlush(inserted.capture());
+		assertEquals(List.of("hash:secret-ana", "hash:secret-edu"), inserted.getValue().stream().map(User::getPassword).toList());
+		verify(userRepository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void concurrentInsertConflictRetriesRowByRow() {
+		when(userRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("users_username_key"));
+		when(userRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+			User user = invocation.getArgument(0);
+			if (user.getUsername().equals("bia")) {
+				throw new DataIntegrityViolationException("users_username_key");
+			}
+			user.setId(ids.incrementAndGet());
+			return user;
+		});
+
+		BulkResponse<UserResponse> response = service.registerAll(List.of(
+				user("ana", "ana@prestobr.com"),
+				user("bia", "bia@prestobr.com"),
+				user("caio", "caio@prestobr.com")));
+
+		assertEquals(2, response.created());
+		assertEquals("hash:secret-ana", captured("ana").getPassword());
+		assertNotNull(response.results().get(0).value());
+		assertEquals("Username or email already exists.", response.results().get(1).error());
+		assertEquals("caio", response.results().get(2).value().username());
+		verify(userRepository, times(3)).saveAndFlush(any());
+	}
+
+	@Test
+	void createApiKeysChecksOwnersAndRolesAndIndexesCreatedKeys() {
+		User maria = User.builder().id(7L).username("maria").roles(Set.of()).build();
+		when(userRepository.findByUsernameIn(any())).thenReturn(List.of(maria));
+
+		BulkResponse<ApiKeyResponse> response = service.createApiKeys(List.of(
+				apiKey("maria", "ADMIN"),
+				apiKey("ghost", "ADMIN"),
+				apiKey("maria", "NOPE"),
+				apiKey("maria", "")));
+
+		assertEquals(1, response.created());
+		assertTrue(response.results().get(0).value().getKey().startsWith("pb_"));
+		assertEquals("User not found: ghost", response.results().get(1).error());
+		assertEquals("Role not found: NOPE", response.results().get(2).error());
+		assertTrue(response.results().get(3).error().startsWith("roles:"));
+
+		verify(apiKeyPrincipalCache).put(any(ApiKey.class));
+		verify(auditLog).record(eq(AuditEvent.Type.API_KEY_CREATED), eq("maria"), anyLong(), eq("ADMIN"));
+	}
+
+	@Test
+	void ownerDeletedBeforeInsertRejectsOnlyItsApiKeys() {
+		User maria = User.builder().id(7L).username("maria").roles(Set.of()).build();
+		User pedro = User.builder().id(8L).username("pedro").roles(Set.of()).build();
+		when(userRepository.findByUsernameIn(any())).thenReturn(List.of(maria, pedro));
+
+		// pedro foi apagado entre a busca dos donos e o INSERT: FK quebra o lote e a linha dele
+		when(apiKeyRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("api_keys_user_id_fkey"));
+		when(apiKeyRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+			ApiKey key = invocation.getArgument(0);
+			if (key.getUser().getUsername().equals("pedro")) {
+				throw new DataIntegrityViolationException("api_keys_user_id_fkey");
+			}
+			key.setId(ids.incrementAndGet());
+			return key;
+		});
+
+		BulkResponse<ApiKeyResponse> response = service.createApiKeys(List.of(
+				apiKey("maria", "ADMIN"),
+				apiKey("pedro", "ADMIN"),
+				apiKey("maria", "FISCAL_READ")));
+
+		assertEquals(2, response.created());
+		assertTrue(response.results().get(0).value().getKey().startsWith("pb_"));
+		assertEquals("User not found: pedro", response.results().get(1).error());
+		assertTrue(response.results().get(2).value().getKey().startsWith("pb_"));
+
+		// Só as chaves gravadas entram no índice e no audit
+		verify(apiKeyPrincipalCache, times(2)).put(any(ApiKey.class));
+		verify(auditLog, times(2)).record(eq(AuditEvent.Type.API_KEY_CREATED), eq("maria"), anyLong(), anyString());
+	}
+
+	private List<User> withIds(List<User> users) {
+		users.forEach(user -> user.setId(ids.incrementAndGet()));
+		return users;
+	}
+
+	private User captured(String username) {
+		return mockingDetails(userRepository).getInvocations().stream()
+				.filter(invocation -> invocation.getMethod().getName().equals("saveAndFlush"))
+				.map(invocation -> (User) invocation.getArgument(0))
+				.filter(user -> user.getUsername().equals(username))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private RegisterRequest user(String username, String email, String... roles) {
+		return objectMapper.convertValue(Map.of(
+				"username", username,
+				"email", email,
+				"password", "secret-" + username,
+				"roles", Set.of(roles)), RegisterRequest.class);
+	}
+
+	private ApiKeyProvisionRequest apiKey(String username, String role) {
+		return objectMapper.convertValue(Map.of(
+				"username", username,
+				"description", "integração",
+				"roles", role.isEmpty() ? Set.of() : Set.of(role)), ApiKeyProvisionRequest.class);
+	}
+}
@@ -0,0 +1,101 @@
+package com.prestobr.auth.service;
+
+import com.prestobr.auth.dto.request.IntrospectionRequest;
+import com.prestobr.auth.dto.response.IntrospectionResponse;
+import com.prestobr.auth.infra.security.ApiKeyVerifier;
+import com.prestobr.auth.infra.security.RoleCatalog;
+import com.prestobr.auth.infra.security.RoleMaskAuthentication;
+import com.prestobr.auth.infra.security.SignedApiKeys.SignedApiKey;
+import com.prestobr.auth.infra.security.TokenRevocationList;
+import com.prestobr.auth.infra.security.VerifiedTokenCache;
+import com.prestobr.auth.infra.security.VerifiedTokenCache.CachedPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class IntrospectionServiceTests {
+
+	private VerifiedTokenCache verifiedTokenCache;
+	private TokenRevocationList tokenRevocationList;
+	private ApiKeyVerifier apiKeyVerifier;
+	private RoleCatalog roleCatalog;
+	private IntrospectionService introspectionService;
+
+	@BeforeEach
+	void setUp() {
+		verifiedTokenCache = mock(VerifiedTokenCache.class);
+		tokenRevocationList = mock(TokenRevocationList.class);
+		apiKeyVerifier = mock(ApiKeyVerifier.class);
+		roleCatalog = mock(RoleCatalog.class);
+		introspectionService = new IntrospectionService(verifiedTokenCache, tokenRevocationList, apiKeyVerifier, roleCatalog);
+
+		when(apiKeyVerifier.isSigned(any())).thenAnswer(invocation -> invocation.<String>getArgument(0).startsWith("pbs_"));
+		when(verifiedTokenCache.resolve(any())).thenReturn(Optional.empty());
+	}
+
+	@Test
+	void activeAccessTokenReturnsClaimsFromTheCache() {
+		UUID jti = UUID.randomUUID();
+		Instant expiresAt = Instant.now().plusSeconds(600);
+		List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_FISCAL_READ"));
+		CachedPrincipal principal = new CachedPrincipal("maria", new RoleMaskAuthentication("maria", 0b110, authorities),
+				jti, 1_700_000_000L, expiresAt);
+		when(verifiedTokenCache.resolve("jwt.active")).thenReturn(Optional.of(principal));
+
+		IntrospectionResponse response = introspectionService.introspect("jwt.active");
+
+		assertTrue(response.active());
+		assertEquals(IntrospectionResponse.ACCESS_TOKEN, response.tokenType());
+		assertEquals("maria", response.sub());
+		assertEquals(List.of("ADMIN", "FISCAL_READ"), response.roles());
+		assertEquals(expiresAt.getEpochSecond(), response.exp());
+		assertEquals(jti.toString(), response.jti());
+	}
+
+	@Test
+	void revokedOrUnknownTokensAreInactive() {
+		CachedPrincipal principal = new CachedPrincipal("maria", new RoleMaskAuthentication("maria", 0, List.of()),
+				null, 1_700_000_000L, Instant.now().plusSeconds(600));
+		when(verifiedTokenCache.resolve("jwt.revoked")).thenReturn(Optional.of(principal));
+		when(tokenRevocationList.isRevoked(any(), eq("maria"), anyLong())).thenReturn(true);
+		when(apiKeyVerifier.verify(any())).thenReturn(Optional.empty());
+
+		List<IntrospectionResponse> responses = introspectionService.introspectAll(List.of(
+				request("jwt.revoked"), request("jwt.unknown"), request("pb_0123456789abcdef_wrong")));
+
+		assertEquals(List.of(IntrospectionResponse.inactive(), IntrospectionResponse.inactive(), IntrospectionResponse.inactive()), responses);
+	}
+
+	@Test
+	void signedApiKeyUsesRolesFromItsMask() {
+		when(apiKeyVerifier.verifySigned("pbs_key")).thenReturn(Optional.of(new SignedApiKey(9, "erp", 0b10, 0)));
+		when(roleCatalog.authorities(0b10L)).thenReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+		IntrospectionResponse response = introspectionService.introspect("pbs_key");
+
+		assertTrue(response.active());
+		assertEquals(IntrospectionResponse.API_KEY, response.tokenType());
+		assertEquals("erp", response.username());
+		assertEquals(List.of("ADMIN"), response.roles());
+		assertNull(response.exp());
+		verifyNoInteractions(verifiedTokenCache);
+	}
+
+	private static IntrospectionRequest request(String token) {
+		IntrospectionRequest request = new IntrospectionRequest();
+		ReflectionTestUtils.setField(request, "token", token);
+		return request;
+	}
+}
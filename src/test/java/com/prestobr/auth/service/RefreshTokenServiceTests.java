@@ -0,0 +1,179 @@
+package com.prestobr.auth.service;
+
+import com.prestobr.auth.domain.entity.RefreshToken;
+import com.prestobr.auth.domain.entity.Role;
+import com.prestobr.auth.domain.entity.User;
+import com.prestobr.auth.dto.response.LoginResponse;
+import com.prestobr.auth.infra.security.JwtService;
+import com.prestobr.auth.repository.RefreshTokenRepository;
+import com.prestobr.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTests {
+
+	private RefreshTokenRepository refreshTokenRepository;
+	private JwtService jwtService;
+	private RefreshTokenService refreshTokenService;
+
+	// Tokens gravados, por hash — o serviço só guarda o SHA-256
+	private final Map<String, RefreshToken> stored = new HashMap<>();
+	private final User maria = User.builder()
+			.id(1L)
+			.username("maria")
+			.roles(Set.of(Role.builder().id(1L).name("ADMIN").build()))
+			.build();
+
+	@BeforeEach
+	void setUp() {
+		refreshTokenRepository = mock(RefreshTokenRepository.class);
+		UserRepository userRepository = mock(UserRepository.class);
+		jwtService = mock(JwtService.class);
+		refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, jwtService);
+		ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationMs", 60_000L);
+
+		when(userRepository.getReferenceById(1L)).thenReturn(maria);
+		when(jwtService.generateToken(eq("maria"), any())).thenReturn("access");
+		when(jwtService.getAccessExpirationMs()).thenReturn(900_000L);
+		when(refreshTokenRepository.save(any())).thenAnswer(invocation -> {
+			RefreshToken token = invocation.getArgument(0);
+			token.setId((long) stored.size() + 1);
+			stored.put(token.getTokenHash(), token);
+			return token;
+		});
+		when(refreshTokenRepository.findByTokenHash(any()))
+				.thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+		// markUsed de verdade: só consome token ainda não usado
+		when(refreshTokenRepository.markUsed(anyLong(), any())).thenAnswer(invocation -> {
+			RefreshToken token = byId(invocation.getArgument(0));
+			if (token.getUsedAt() != null || token.isRevoked()) {
+				return 0;
+			}
+			token.setUsedAt(invocation.getArgument(1));
+			return 1;
+		});
+	}
+
+	@Test
+	void refreshRotatesWithinTheSameFamily() {
+		String first = refreshTokenService.issue(1L);
+
+		LoginResponse response = refreshTokenService.refresh(first);
+
+		assertEquals("access", response.getToken());
+		assertEquals(900, response.getExpiresIn());
+		assertNotEquals(first, response.getRefreshToken());
+		assertEquals(2, stored.size());
+		assertEquals(1, stored.values().stream().map(RefreshToken::getFamilyId).distinct().count());
+		verify(jwtService).generateToken("maria", List.of("ADMIN"));
+
+		// O token novo também roda — a cadeia segue
+		assertNotNull(refreshTokenService.refresh(response.getRefreshToken()).getRefreshToken());
+		verify(refreshTokenRepository, never()).revokeFamily(any());
+	}
+
+	@Test
+	void reusedTokenRevokesTheWholeFamily() {
+		String first = refreshTokenService.issue(1L);
+		refreshTokenService.refresh(first);
+		UUID family = stored.values().iterator().next().getFamilyId();
+
+		// O token antigo apresentado de novo (ex.: vazado) derruba também o que foi emitido na rotação
+		ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> refreshTokenService.refresh(first));
+
+		assertEquals(HttpStatus.UNAUTHORIZED, error.getStatusCode());
+		verify(refreshTokenRepository).revokeFamily(family);
+	}
+
+	@Test
+	void concurrentRefreshOfTheSameTokenIsTreatedAsReuse() {
+		String first = refreshTokenService.issue(1L);
+		// Outro refresh consumiu o token entre a leitura e o update
+		doReturn(0).when(refreshTokenRepository).markUsed(anyLong(), any());
+
+		assertThrows(ResponseStatusException.class, () -> refreshTokenService.refresh(first));
+
+		verify(refreshTokenRepository).revokeFamily(stored.values().iterator().next().getFamilyId());
+		verify(jwtService, never()).generateToken(any(), any());
+	}
+
+	@Test
+	void expiredOrUnknownTokenIsRejectedWithoutRevoking() {
+		String first = refreshTokenService.issue(1L);
+		stored.values().iterator().next().setExpiresAt(LocalDateTime.now().minusSeconds(1));
+
+		assertThrows(ResponseStatusException.class, () -> refreshTokenService.refresh(first));
+		assertThrows(ResponseStatusException.class, () -> refreshTokenService.refresh("unknown"));
+
+		verify(refreshTokenRepository, never()).revokeFamily(any());
+		verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+	}
+
+	@Test
+	void inactiveUserRevokesTheFamily() {
+		String first = refreshTokenService.issue(1L);
+		maria.setActive(false);
+
+		assertThrows(ResponseStatusException.class, () -> refreshTokenService.refresh(first));
+
+		ArgumentCaptor<UUID> family = ArgumentCaptor.forClass(UUID.class);
+		verify(refreshTokenRepository).revokeFamily(family.capture());
+		assertEquals(stored.values().iterator().next().getFamilyId(), family.getValue());
+	}
+
+	@Test
+	void logoutRevokesTheSessionFamily() {
+		String session = refreshTokenService.issue(1L);
+		String otherDevice = refreshTokenService.issue(1L);
+		revokeFamiliesForReal();
+
+		refreshTokenService.revokeOnLogout("maria", session);
+
+		assertThrows(ResponseStatusException.class, () -> refreshTokenService.refresh(session));
+		// Outra sessão do mesmo usuário continua
+		assertNotNull(refreshTokenService.refresh(otherDevice).getRefreshToken());
+		verify(refreshTokenRepository, never()).revokeAllByUsername(any());
+	}
+
+	@Test
+	void logoutWithoutOwnRefreshTokenRevokesAllUserFamilies() {
+		String session = refreshTokenService.issue(1L);
+
+		refreshTokenService.revokeOnLogout("maria", null);
+		refreshTokenService.revokeOnLogout("joao", session);
+
+		verify(refreshTokenRepository).revokeAllByUsername("maria");
+		verify(refreshTokenRepository).revokeAllByUsername("joao");
+		verify(refreshTokenRepository, never()).revokeFamily(any());
+	}
+
+	// revokeFamily de verdade: marca os tokens gravados da família
+	private void revokeFamiliesForReal() {
+		when(refreshTokenRepository.revokeFamily(any())).thenAnswer(invocation -> {
+			stored.values().stream()
+					.filter(token -> token.getFamilyId().equals(invocation.getArgument(0)))
+					.forEach(token -> token.setRevoked(true));
+			return 1;
+		});
+	}
+
+	private RefreshToken byId(Long id) {
+		return stored.values().stream().filter(token -> token.getId().equals(id)).findFirst().orElseThrow();
+	}
+}